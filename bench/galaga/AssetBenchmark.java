@@ -0,0 +1,50 @@
+package galaga;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Startup sprite loading with and without the asset bundle. Packs a bundle to a
+ * temporary file, then times loading all of the game's sprites: the first load in this
+ * JVM, which is what a cold start pays, and the mean of later ones. AssetBundleTest
+ * checks that the bundle matches decoding.
+ * Run headless from the project root so sprites resolve:
+ *   java -Djava.awt.headless=true -cp target/bench/benchmarks.jar galaga.AssetBenchmark [bundle | decode]
+ * The cold numbers are only meaningful for the mode named first on the command line.
+ */
+public class AssetBenchmark {
+    public static void main(String[] args) throws Exception {
+        boolean bundleFirst = args.length == 0 || !args[0].equals("decode");
+        Path file = Files.createTempFile("galaga", ".bundle");
+        try {
+            List<AssetBundle.Sprite> sprites = AssetLoader.gameSprites();
+            AssetBundle.write(file, sprites);
+            AssetBundle bundle = AssetBundle.open(file);
+
+            if (bundleFirst) {
+                time("bundle", bundle, sprites);
+                time("decode", null, sprites);
+            } else {
+                time("decode", null, sprites);
+                time("bundle", bundle, sprites);
+            }
+
+            System.out.printf("%d sprites, %d bytes bundled%n", sprites.size(), Files.size(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void time(String name, AssetBundle bundle, List<AssetBundle.Sprite> sprites) {
+        long start = System.nanoTime();
+        AssetLoader.Result first = AssetLoader.load(bundle, sprites, null);
+        long cold = System.nanoTime() - start;
+        int runs = 20;
+        start = System.nanoTime();
+        for (int i = 0; i < runs; i++) AssetLoader.load(bundle, sprites, null);
+        long warm = (System.nanoTime() - start) / runs;
+        System.out.printf("%s: first load %.2f ms, later loads %.2f ms (%d bundled, %d decoded, %d missing)%n",
+                name, cold / 1e6, warm / 1e6, first.fromBundle(), first.decoded(), first.missing().size());
+    }
+}
@@ -0,0 +1,73 @@
+package galaga;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Runs JMH benchmarks from a main method and reads back the time and allocation of each,
+ * for the benchmark programs that compare or judge their own results. Allocation comes
+ * from JMH's GC profiler, which every run here includes.
+ */
+public class Bench {
+    /**
+     * Measured cost of one benchmark.
+     * @param name Benchmark method, then its parameter values, such as checkCollisions/100
+     * @param nanosPerOp Mean time per operation across iterations
+     * @param errorNanos JMH's 99.9% confidence half-interval of the mean
+     * @param bytesPerOp Heap allocated per operation, -1 if the JVM cannot report it
+     */
+    public record Measurement(String name, double nanosPerOp, double errorNanos, double bytesPerOp) {
+        @Override
+        public String toString() {
+            return String.format("%-40s %14.1f +- %-10.1f %12.1f", name, nanosPerOp, errorNanos, bytesPerOp);
+        }
+    }
+
+    /**
+     * @return Options running every benchmark of a class with the GC profiler, to which
+     *         parameters or other settings can be added before building
+     */
+    public static ChainedOptionsBuilder options(Class<?> benchmarks) {
+        return new OptionsBuilder()
+                .include(Pattern.quote(benchmarks.getName() + "."))
+                .addProfiler(GCProfiler.class);
+    }
+
+    /**
+     * Runs the benchmarks and prints one line per benchmark after JMH's own report.
+     * @return Time and allocation per operation of each, in the order JMH ran them
+     */
+    public static List<Measurement> run(Options options) throws RunnerException {
+        List<Measurement> measurements = new ArrayList<>();
+        for (RunResult run : new Runner(options).run()) {
+            Result<?> primary = run.getPrimaryResult();
+            double bytes = -1;
+            for (String key : run.getSecondaryResults().keySet()) {
+                if (key.endsWith("gc.alloc.rate.norm")) bytes = run.getSecondaryResults().get(key).getScore();
+            }
+            measurements.add(new Measurement(name(run), primary.getScore(), primary.getScoreError(), bytes));
+        }
+
+        System.out.printf("%n%-40s %14s    %-10s %12s%n", "benchmark", "ns/op", "error", "bytes/op");
+        for (Measurement m : measurements) System.out.println(m);
+        return measurements;
+    }
+
+    // Method name and parameter values, such as update/swooping
+    private static String name(RunResult run) {
+        String benchmark = run.getParams().getBenchmark();
+        StringBuilder name = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.') + 1));
+        for (String key : run.getParams().getParamsKeys()) name.append('/').append(run.getParams().getParam(key));
+        return name.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package galaga;
+
+import java.util.Random;
+
+/**
+ * Compares the old all-pairs laser-vs-enemy scan with the SpatialGrid broadphase used by
+ * PlayGame.checkCollisions, from 10 to 10,000 entities on the 800x600 board.
+ * SpatialGridTest checks that the two agree.
+ * Run with: java -Djava.awt.headless=true -cp target/bench/benchmarks.jar galaga.CollisionBenchmark
+ */
+public class CollisionBenchmark {
+    private static final int[] ENTITY_COUNTS = {10, 100, 1_000, 10_000};
+    private static final int WARMUP_PASSES = 200;
+    private static final long MEASURE_NANOS = 1_000_000_000L;
+
+    static int sink; // Keeps the JIT from discarding results
+
+    public static void main(String[] args) {
+        System.out.printf("%10s %10s %10s %16s %16s %8s%n",
+                "entities", "enemies", "lasers", "all-pairs ns", "grid ns", "speedup");
+        for (int count : ENTITY_COUNTS) {
+            Random rand = new Random(count);
+            EnemyStore enemies = new EnemyStore(count);
+            ProjectileStore lasers = Laser.createStore();
+            int enemyCount = count * 3 / 4;
+            for (int i = 0; i < enemyCount; i++) {
+                enemies.add(EnemyFactory.SWOOPING, rand.nextInt(PlayGame.BOARD_WIDTH - EnemyStore.SIZE),
+                        rand.nextInt(PlayGame.BOARD_HEIGHT - EnemyStore.SIZE), 0, 0);
+            }
+            for (int i = enemyCount; i < count; i++) {
+                lasers.add(rand.nextInt(PlayGame.BOARD_WIDTH), rand.nextInt(PlayGame.BOARD_HEIGHT), Laser.SPEED);
+            }
+            SpatialGrid grid = new SpatialGrid(PlayGame.BOARD_WIDTH, PlayGame.BOARD_HEIGHT, 64);
+
+            double bruteNanos = measure(() -> sink += allPairs(enemies, lasers));
+            double gridNanos = measure(() -> sink += broadphase(grid, enemies, lasers));
+            System.out.printf("%10d %10d %10d %16.0f %16.0f %7.1fx%n",
+                    count, enemyCount, lasers.size(), bruteNanos, gridNanos, bruteNanos / gridNanos);
+        }
+    }
+
+    // Average nanoseconds per pass after a warmup
+    private static double measure(Runnable pass) {
+        for (int i = 0; i < WARMUP_PASSES; i++) pass.run();
+        long passes = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            pass.run();
+            passes++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        return (double) elapsed / passes;
+    }
+
+    // Sum of the index of the first enemy hit by each laser, -1 for misses
+    private static int allPairs(EnemyStore enemies, ProjectileStore lasers) {
+        int total = 0;
+        for (int i = 0; i < lasers.size(); i++) {
+            int target = -1;
+            for (int j = 0; j < enemies.size(); j++) {
+                if (Collision.overlaps(enemies.x[j], enemies.y[j], EnemyStore.SIZE, EnemyStore.SIZE,
+                        lasers.x[i], lasers.y[i], Laser.WIDTH, Laser.HEIGHT)) {
+                    target = j;
+                    break;
+                }
+            }
+            total += target;
+        }
+        return total;
+    }
+
+    private static int broadphase(SpatialGrid grid, EnemyStore enemies, ProjectileStore lasers) {
+        grid.clear();
+        for (int j = 0; j < enemies.size(); j++) {
+            grid.insert(j, enemies.x[j], enemies.y[j], EnemyStore.SIZE, EnemyStore.SIZE);
+        }
+        int total = 0;
+        for (int i = 0; i < lasers.size(); i++) {
+            total += grid.firstOverlap(lasers.x[i], lasers.y[i], Laser.WIDTH, Laser.HEIGHT);
+        }
+        return total;
+    }
+}
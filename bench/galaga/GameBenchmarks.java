@@ -0,0 +1,267 @@
+package galaga;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the game's hot paths, with mean time and allocation per operation.
+ *
+ * Build with mvn package, then run from the project root so sprites and waves resolve:
+ *   java -jar target/bench/benchmarks.jar GameBenchmarks -prof gc
+ * Compare against the committed numbers, failing if anything got more than 25% slower:
+ *   java -cp target/bench/benchmarks.jar galaga.GameBenchmarks --compare bench/baseline.txt
+ * Write a new baseline, whenever a benchmark changes what it measures:
+ *   java -cp target/bench/benchmarks.jar galaga.GameBenchmarks --save bench/baseline.txt
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GameBenchmarks {
+    private static final long TICK_NANOS = 20_000_000L;
+    private static final long SEED = 42;
+    private static final double REGRESSION_LIMIT = 1.25;
+    private static final int UPDATED_ENEMIES = 1_000;
+
+    @State(Scope.Thread)
+    public static class Collisions {
+        @Param({"10", "100", "1000", "10000"})
+        public int enemies;
+        GameWorld world;
+
+        @Setup
+        public void setUp() {
+            world = populatedWorld(enemies);
+        }
+    }
+
+    @Benchmark
+    public int checkCollisions(Collisions state) {
+        state.world.checkCollisions();
+        return state.world.getLasers().size();
+    }
+
+    // Building the whole of the first wave and of the last scripted one, which every later
+    // wave repeats: starting it, then every spawn it has, as if its spawn window had passed
+    @State(Scope.Thread)
+    public static class Waves {
+        @Param({"1", "last"})
+        public String wave;
+        GameWorld world;
+        int number;
+        int window; // Milliseconds from the start of the wave to its last spawn
+
+        @Setup
+        public void setUp() {
+            world = new GameWorld(SEED, TICK_NANOS);
+            WavePlan plan = Balance.standard().waves();
+            number = wave.equals("last") ? plan.size() : Integer.parseInt(wave);
+            for (WavePlan.Spawn spawn : plan.wave(number).spawns()) window = Math.max(window, spawn.time());
+        }
+    }
+
+    @Benchmark
+    public int startWave(Waves state) {
+        GameWorld world = state.world;
+        world.startWave(state.number);
+        world.spawnDue(world.now() + state.window);
+        return world.getEnemies().size();
+    }
+
+    // A thousand enemies of one archetype, updated by the enemy systems
+    @State(Scope.Thread)
+    public static class EnemyType {
+        @Param({"swooping", "shooting", "capturing"})
+        public String type;
+        Hero hero;
+        ProjectileStore bullets;
+        EnemyStore enemies;
+        long now = 0;
+
+        @Setup
+        public void setUp() {
+            GameWorld world = new GameWorld(SEED, TICK_NANOS);
+            hero = world.getHero();
+            bullets = world.getEnemyBullets();
+            enemies = new EnemyStore(UPDATED_ENEMIES);
+            for (int i = 0; i < UPDATED_ENEMIES; i++) {
+                EnemyFactory.createEnemy(type, (i * 50) % 750, 50 + (i % 8) * 40, enemies, new GameRandom(i));
+            }
+        }
+    }
+
+    // Cost of updating one enemy
+    @Benchmark
+    @OperationsPerInvocation(UPDATED_ENEMIES)
+    public int update(EnemyType state) {
+        EnemyStore enemies = state.enemies;
+        state.now += 20;
+        for (int i = 0; i < enemies.size(); i++) {
+            if (EnemySystems.canSwoop(enemies, i)) EnemySystems.startSwoop(enemies, i, state.hero);
+        }
+        EnemySystems.update(enemies, 0, enemies.size(), state.now, state.hero, state.bullets);
+        state.bullets.clear();
+        return enemies.y[0];
+    }
+
+    // One EnemyUpdater pass over a mixed population; parallel from the updater's threshold on
+    @State(Scope.Thread)
+    public static class Population {
+        @Param({"1000", "10000", "100000"})
+        public int population;
+        EnemyStore enemies;
+        Hero hero;
+        ProjectileStore bullets;
+        EnemyUpdater updater;
+        long now = 0;
+
+        @Setup
+        public void setUp() {
+            GameWorld world = populatedWorld(population);
+            enemies = world.getEnemies();
+            hero = world.getHero();
+            bullets = world.getEnemyBullets();
+            updater = new EnemyUpdater();
+        }
+    }
+
+    @Benchmark
+    public int enemyUpdater(Population state) {
+        state.now += 20;
+        state.updater.update(state.enemies, state.now, state.hero, state.bullets);
+        state.bullets.clear();
+        return state.enemies.x[0];
+    }
+
+    @State(Scope.Thread)
+    public static class Overlaps {
+        Hero hero;
+        EnemyStore beaming;
+        CollisionMask wasp;
+
+        @Setup
+        public void setUp() {
+            hero = new Hero(375, 500);
+            beaming = new EnemyStore(1);
+            beaming.add(EnemyFactory.CAPTURING, 360, 400, 0, 0);
+            beaming.stage[0] = EnemyStore.FIRING;
+            wasp = EnemyFactory.SWOOPING.mask(0);
+        }
+    }
+
+    @Benchmark
+    public boolean beamHitsHero(Overlaps state) {
+        return EnemySystems.beamHitsHero(state.beaming, 0, state.hero);
+    }
+
+    @Benchmark
+    public boolean maskOverlaps(Overlaps state) {
+        Hero hero = state.hero;
+        return hero.mask.overlaps(hero.x, hero.y, state.wasp, hero.x + 5, hero.y - 30);
+    }
+
+    // A whole frame a hundred ticks into a game, painted into an offscreen image
+    @State(Scope.Thread)
+    public static class Frame {
+        PlayGame game;
+        BufferedImage image;
+        Graphics2D g;
+
+        @Setup
+        public void setUp() {
+            game = new PlayGame(false); // Without resuming, saving or a leaderboard on disk
+            game.setSize(PlayGame.BOARD_WIDTH, PlayGame.BOARD_HEIGHT);
+            game.gameStart = true;
+            for (int i = 0; i < 100; i++) game.world.tick(i % 8 == 0 ? GameWorld.INPUT_FIRE : 0);
+            game.render(1.0); // Publishes the ticked world for painting
+            image = new BufferedImage(PlayGame.BOARD_WIDTH, PlayGame.BOARD_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            g = image.createGraphics();
+        }
+
+        @TearDown
+        public void tearDown() {
+            g.dispose();
+        }
+    }
+
+    @Benchmark
+    public int paintComponent(Frame state) {
+        state.game.paintComponent(state.g);
+        return state.image.getRGB(0, 0);
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        List<Bench.Measurement> results = Bench.run(Bench.options(GameBenchmarks.class).build());
+        if (args.length == 2 && args[0].equals("--save")) {
+            save(results, Path.of(args[1]));
+        } else if (args.length == 2 && args[0].equals("--compare")) {
+            if (!compare(results, Path.of(args[1]))) System.exit(1);
+        }
+    }
+
+    // A world holding the given number of enemies in rows, with a quarter as many lasers
+    // placed in the gaps between them so every pass does the full amount of work
+    private static GameWorld populatedWorld(int enemyCount) {
+        GameWorld world = new GameWorld(SEED, TICK_NANOS);
+        EnemyStore enemies = world.getEnemies();
+        enemies.clear();
+        String[] types = {"swooping", "shooting", "capturing"};
+        for (int i = 0; i < enemyCount; i++) {
+            int x = (i * 50) % 750;
+            int y = ((i * 50) / 750 * 45) % 400;
+            EnemyFactory.createEnemy(types[i % 3], x, y, enemies, new GameRandom(i));
+        }
+        for (int i = 0; i < enemyCount / 4; i++) {
+            world.getLasers().add(42 + (i * 50) % 750, (i * 37) % 400, Laser.SPEED);
+        }
+        return world;
+    }
+
+    private static void save(List<Bench.Measurement> results, Path file) throws IOException {
+        StringBuilder out = new StringBuilder();
+        out.append("# Java ").append(System.getProperty("java.version"))
+                .append(", ").append(Runtime.getRuntime().availableProcessors()).append(" cores\n");
+        out.append("# benchmark\tns/op\tbytes/op\n");
+        for (Bench.Measurement r : results) {
+            out.append(String.format("%s\t%.1f\t%.1f%n", r.name(), r.nanosPerOp(), r.bytesPerOp()));
+        }
+        Files.writeString(file, out);
+    }
+
+    // Reports each benchmark against the baseline; false if any is past the regression limit
+    private static boolean compare(List<Bench.Measurement> results, Path file) throws IOException {
+        Map<String, Double> baseline = new HashMap<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank() || line.startsWith("#")) continue;
+            String[] fields = line.split("\t");
+            baseline.put(fields[0], Double.parseDouble(fields[1]));
+        }
+
+        boolean ok = true;
+        System.out.printf("%n%-40s %14s %14s %8s%n", "benchmark", "baseline ns", "current ns", "ratio");
+        for (Bench.Measurement r : results) {
+            Double before = baseline.get(r.name());
+            if (before == null) {
+                System.out.printf("%-40s %14s %14.1f%n", r.name(), "none", r.nanosPerOp());
+                continue;
+            }
+            double ratio = r.nanosPerOp() / before;
+            boolean regressed = ratio > REGRESSION_LIMIT;
+            ok &= !regressed;
+            System.out.printf("%-40s %14.1f %14.1f %7.2fx%s%n", r.name(), before, r.nanosPerOp(), ratio,
+                    regressed ? "  REGRESSION" : "");
+        }
+        return ok;
+    }
+}
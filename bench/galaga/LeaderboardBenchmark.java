@@ -0,0 +1,63 @@
+package galaga;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Leaderboard at cabinet scale. Times ScoreTree inserts and rank queries in memory, then
+ * a board on disk: submits with fsync, compaction, and reopening it. LeaderboardTest
+ * checks the results.
+ * Run with: java -cp target/bench/benchmarks.jar galaga.LeaderboardBenchmark [entries] [entries on disk]
+ */
+public class LeaderboardBenchmark {
+    public static void main(String[] args) throws Exception {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int onDisk = Math.min(entries, args.length > 1 ? Integer.parseInt(args[1]) : 50_000); // Each one is an fsync
+        GameRandom rand = new GameRandom(12);
+        int[] values = new int[entries];
+        for (int i = 0; i < entries; i++) values[i] = rand.nextInt(200) * 50; // Scores come in steps of 50
+
+        ScoreTree tree = new ScoreTree();
+        long start = System.nanoTime();
+        for (int i = 0; i < entries; i++) tree.insert("P" + (i % 1000), values[i]);
+        long insertNanos = System.nanoTime() - start;
+
+        int queries = 1_000_000;
+        int sink = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) sink += tree.rankOf((q * 37) % 10_000);
+        long rankNanos = System.nanoTime() - start;
+        System.out.printf("ScoreTree: %d inserts at %.0f ns, rank queries at %.0f ns (%d)%n",
+                entries, (double) insertNanos / entries, (double) rankNanos / queries, sink & 1);
+
+        Path dir = Files.createTempDirectory("leaderboard");
+        try {
+            Leaderboard board = new Leaderboard(dir);
+            int synced = 2_000;
+            start = System.nanoTime();
+            for (int i = 0; i < synced; i++) board.submit("AAA", values[i]);
+            board.size().get(); // Waits for every submit ahead of it
+            long submitNanos = System.nanoTime() - start;
+            System.out.printf("Leaderboard: %.1f us per submit, forced to disk%n", submitNanos / 1e3 / synced);
+
+            // Fill the rest through the log, which compacts every COMPACT_AFTER runs
+            start = System.nanoTime();
+            for (int i = synced; i < onDisk; i++) board.submit("BBB", values[i]);
+            int total = board.size().get();
+            System.out.printf("Leaderboard: %d runs recorded in %.1f s%n", total, (System.nanoTime() - start) / 1e9);
+            board.close();
+
+            start = System.nanoTime();
+            Leaderboard reopened = new Leaderboard(dir);
+            int reopenedRuns = reopened.size().get();
+            System.out.printf("Leaderboard: reopened %d runs in %.0f ms%n", reopenedRuns, (System.nanoTime() - start) / 1e6);
+            reopened.close();
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
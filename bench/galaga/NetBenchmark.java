@@ -0,0 +1,123 @@
+package galaga;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Network snapshot cost at growing enemy counts. The enemies patrol, dive and shoot as
+ * in a real wave; for each count the main method reports the bytes per tick of a full
+ * snapshot and of a delta against the previous tick, then JMH times encoding and
+ * decoding them with the allocation per call.
+ * Build with mvn package, then run from the project root so sprites resolve:
+ *   java -cp target/bench/benchmarks.jar galaga.NetBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class NetBenchmark {
+    private static final long TICK_NANOS = 20_000_000L;
+    private static final long SEED = 42;
+    private static final int TICKS = 250; // A few seconds of play before measuring
+
+    // Snapshots of two consecutive ticks of a crowded game
+    @State(Scope.Thread)
+    public static class Ticks {
+        @Param({"10", "100", "1000", "5000"})
+        public int enemies;
+        final WorldSnapshot empty = new WorldSnapshot(false);
+        WorldSnapshot previous = new WorldSnapshot(false);
+        WorldSnapshot current = new WorldSnapshot(false);
+        final WorldSnapshot decoded = new WorldSnapshot(false);
+        final SnapshotCodec codec = new SnapshotCodec();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        long fullBytes, deltaBytes; // Totals over the ticks played in setUp
+
+        @Setup
+        public void setUp() {
+            GameWorld world = populatedWorld(enemies);
+            EnemyUpdater updater = new EnemyUpdater();
+            long[] now = {0};
+            current.copyFrom(world);
+            for (int t = 0; t < TICKS; t++) {
+                WorldSnapshot swap = previous;
+                previous = current;
+                current = swap;
+                step(world, updater, now);
+                current.copyFrom(world);
+                fullBytes += encodedSize(codec, empty, current, buffer);
+                deltaBytes += encodedSize(codec, previous, current, buffer);
+            }
+            // The buffer is left holding the last delta, which decodeDelta reads
+        }
+    }
+
+    @Benchmark
+    public int encodeFull(Ticks state) {
+        return encodedSize(state.codec, state.empty, state.current, state.buffer);
+    }
+
+    @Benchmark
+    public int encodeDelta(Ticks state) {
+        return encodedSize(state.codec, state.previous, state.current, state.buffer);
+    }
+
+    @Benchmark
+    public int decodeDelta(Ticks state) {
+        state.buffer.rewind();
+        state.codec.decode(state.previous, state.buffer, state.decoded);
+        return state.decoded.enemies.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int enemyCount : new int[]{10, 100, 1_000, 5_000}) {
+            Ticks ticks = new Ticks();
+            ticks.enemies = enemyCount;
+            ticks.setUp();
+            System.out.printf("%d enemies: %.0f bytes/tick full, %.0f bytes/tick delta%n",
+                    enemyCount, (double) ticks.fullBytes / TICKS, (double) ticks.deltaBytes / TICKS);
+        }
+        Bench.run(Bench.options(NetBenchmark.class).build());
+    }
+
+    private static int encodedSize(SnapshotCodec codec, WorldSnapshot baseline, WorldSnapshot current, ByteBuffer buffer) {
+        buffer.clear();
+        codec.encode(baseline, current, buffer);
+        buffer.flip();
+        return buffer.remaining();
+    }
+
+    // One tick of enemy and bullet movement, without collisions so the wave never ends
+    private static void step(GameWorld world, EnemyUpdater updater, long[] now) {
+        now[0] += TICK_NANOS / 1_000_000;
+        EnemyStore enemies = world.getEnemies();
+        ProjectileStore bullets = world.getEnemyBullets();
+        enemies.savePositions();
+        bullets.savePositions();
+        for (int i = 0; i < enemies.size(); i += 50) {
+            if (EnemySystems.canSwoop(enemies, i)) EnemySystems.startSwoop(enemies, i, world.getHero());
+        }
+        updater.update(enemies, now[0], world.getHero(), bullets);
+        bullets.updateAll();
+        bullets.cull(0, GameWorld.BOARD_HEIGHT);
+    }
+
+    // Enemies in rows across the board, as in GameBenchmarks
+    private static GameWorld populatedWorld(int enemyCount) {
+        GameWorld world = new GameWorld(SEED, TICK_NANOS);
+        world.setTwoPlayer(true);
+        EnemyStore enemies = world.getEnemies();
+        enemies.clear();
+        String[] types = {"swooping", "shooting", "capturing"};
+        for (int i = 0; i < enemyCount; i++) {
+            int x = (i * 50) % 750;
+            int y = ((i * 50) / 750 * 45) % 400;
+            EnemyFactory.createEnemy(types[i % 3], x, y, enemies, new GameRandom(i));
+        }
+        return world;
+    }
+}
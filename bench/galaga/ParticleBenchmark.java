@@ -0,0 +1,111 @@
+package galaga;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one frame of particles at 50,000 alive, the stages timed separately: the tick
+ * that moves them and tops them back up, the copy into a WorldSnapshot, and drawing the
+ * snapshot onto a board-sized image. A fillRect per particle is timed alongside for
+ * comparison. The main method passes when the three stages fit in the 16.7 ms of 60 FPS.
+ * Build with mvn package, then run:
+ *   java -cp target/bench/benchmarks.jar galaga.ParticleBenchmark [particles]
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ParticleBenchmark {
+    private static final double FRAME_BUDGET_NANOS = 1e9 / 60;
+    private static final int[] COLORS = {0xFF4040, 0xFFFF40, 0x40C0FF, 0xFFFFFF};
+
+    // Slow, long-lived bursts all over the board, topped up every tick so the count holds
+    @State(Scope.Thread)
+    public static class Particles {
+        @Param("50000")
+        public int particles;
+        final ParticleStore store = new ParticleStore(GameWorld.MAX_PARTICLES);
+        final WorldSnapshot snapshot = new WorldSnapshot(true);
+        final GameRandom rand = new GameRandom(42);
+        final BufferedImage board = new BufferedImage(GameWorld.BOARD_WIDTH, GameWorld.BOARD_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g;
+        double alpha = 0;
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < 240; i++) tick();
+            snapshot.particles.copyFrom(store);
+            g = board.createGraphics();
+        }
+
+        @TearDown
+        public void tearDown() {
+            g.dispose();
+        }
+
+        int tick() {
+            store.savePositions();
+            store.updateAll(GameWorld.BOARD_WIDTH, GameWorld.BOARD_HEIGHT);
+            while (store.size() < particles) {
+                store.burst(50 + rand.nextInt(700), 50 + rand.nextInt(400), 40, 1.5f,
+                        COLORS[rand.nextInt(COLORS.length)], 240, rand);
+            }
+            return store.size();
+        }
+    }
+
+    @Benchmark
+    public int tick(Particles state) {
+        return state.tick();
+    }
+
+    @Benchmark
+    public int snapshot(Particles state) {
+        state.snapshot.particles.copyFrom(state.store);
+        return state.snapshot.particles.size();
+    }
+
+    @Benchmark
+    public int draw(Particles state) {
+        state.alpha = state.alpha >= 1 ? 0 : state.alpha + 0.25; // A new alpha every frame, as in play
+        state.g.clearRect(0, 0, state.board.getWidth(), state.board.getHeight());
+        state.snapshot.particles.draw(state.g, state.alpha);
+        return state.board.getRGB(400, 300);
+    }
+
+    @Benchmark
+    public int fillRect(Particles state) {
+        Graphics2D g = state.g;
+        g.clearRect(0, 0, state.board.getWidth(), state.board.getHeight());
+        ParticleStore p = state.snapshot.particles;
+        for (int i = 0; i < p.count; i++) {
+            g.setColor(new Color(p.rgb[i]));
+            g.fillRect((int) p.x[i], (int) p.y[i], ParticleStore.SIZE, ParticleStore.SIZE);
+        }
+        return state.board.getRGB(400, 300);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = Bench.options(ParticleBenchmark.class);
+        if (args.length > 0) options.param("particles", args[0]);
+        List<Bench.Measurement> results = Bench.run(options.build());
+
+        double frame = 0;
+        for (Bench.Measurement m : results) {
+            if (!m.name().startsWith("fillRect/")) frame += m.nanosPerOp();
+        }
+        System.out.printf("%s particles: %.2f ms per frame, %.0f%% of the 60 FPS budget%n",
+                args.length > 0 ? args[0] : "50000", frame / 1e6, 100 * frame / FRAME_BUDGET_NANOS);
+        if (frame > FRAME_BUDGET_NANOS) {
+            System.out.println("FAILED: a frame of particles does not fit in 60 FPS");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package galaga;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records a game of seeded random input, saves and loads it, then reports file size,
+ * playback speed and seek time. ReplayTest checks that playback and seeking are exact.
+ * Given a file recorded with -Dgalaga.record instead, times playback of that game.
+ * Run with: java -Djava.awt.headless=true -cp target/bench/benchmarks.jar galaga.ReplayBenchmark [ticks | replay file]
+ */
+public class ReplayBenchmark {
+    private static final long TICK_NANOS = 20_000_000L;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && !args[0].matches("\\d+")) {
+            timePlayback(Replay.read(Path.of(args[0])));
+            return;
+        }
+        int maxTicks = args.length > 0 ? Integer.parseInt(args[0]) : 30_000;
+
+        // One game, up to maxTicks long
+        GameWorld world = new GameWorld(SEED, TICK_NANOS);
+        GameRandom inputs = new GameRandom(SEED);
+        Replay recording = Replay.startRecording(world, Replay.DEFAULT_KEYFRAME_INTERVAL);
+        int input = 0;
+        for (int i = 0; i < maxTicks && !world.isGameOver(); i++) {
+            if (inputs.nextInt(10) == 0) input = inputs.nextInt(8); // Held for a few ticks like a player
+            recording.record(world, input);
+            world.tick(input);
+        }
+        int ticks = recording.getTickCount();
+
+        Path file = Files.createTempFile("galaga", ".replay");
+        recording.write(file);
+        Replay replay = Replay.read(file);
+        System.out.printf("%d ticks, %d keyframes, %d bytes on disk%n",
+                replay.getTickCount(), replay.getKeyframeCount(), Files.size(file));
+        Files.delete(file);
+
+        // Straight playback, twice
+        for (int run = 0; run < 2; run++) {
+            ReplayPlayer player = new ReplayPlayer(replay);
+            long start = System.nanoTime();
+            while (player.step()) {
+                // Plays every tick
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("playback %d: %.0f ticks/s%n", run + 1, ticks / (elapsed / 1e9));
+        }
+
+        // Seeking at uneven steps, so targets land both on and between keyframes
+        ReplayPlayer seeker = new ReplayPlayer(replay);
+        long seekNanos = 0;
+        int seeks = 0;
+        int stride = Math.max(1, ticks / 40 + 7);
+        for (int tick = 0; tick <= ticks; tick += stride) {
+            long start = System.nanoTime();
+            seeker.seek(tick);
+            seekNanos += System.nanoTime() - start;
+            seeks++;
+        }
+        System.out.printf("%d seeks, %.2f ms average%n", seeks, seekNanos / 1e6 / seeks);
+    }
+
+    // Plays a recorded game repeatedly at full speed
+    private static void timePlayback(Replay replay) {
+        for (int run = 0; run < 5; run++) {
+            ReplayPlayer player = new ReplayPlayer(replay);
+            long start = System.nanoTime();
+            while (player.step()) {
+                // Plays every tick
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("run %d: %d ticks in %.1f ms, %.0f ticks/s%n", run + 1, replay.getTickCount(),
+                    elapsed / 1e6, replay.getTickCount() / (elapsed / 1e9));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package galaga;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Times saving and resuming a normal game and one with a state large enough to be
+ * memory-mapped. SaveGameTest checks that the round trip is exact.
+ * Run with: java -Djava.awt.headless=true -cp target/bench/benchmarks.jar galaga.SaveBenchmark
+ */
+public class SaveBenchmark {
+    private static final long TICK_NANOS = 20_000_000L;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("galaga", ".sav");
+        try {
+            GameWorld world = new GameWorld(SEED, TICK_NANOS);
+            GameRandom inputs = new GameRandom(SEED);
+            int input = 0;
+            while (world.getTicks() < 400 && !world.isGameOver()) {
+                if (inputs.nextInt(10) == 0) input = inputs.nextInt(8);
+                world.tick(input);
+            }
+
+            time("normal game", world, file);
+            time("20000 enemies", crowdedWorld(20_000), file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Mean time to save with fsync, and to read and restore
+    private static void time(String name, GameWorld world, Path file) throws IOException {
+        int runs = 200;
+        long saveNanos = 0, resumeNanos = 0, sink = 0;
+        for (int i = 0; i < runs * 2; i++) {
+            long start = System.nanoTime();
+            SaveGame.of(world, "ABC").write(file);
+            long saved = System.nanoTime();
+            GameWorld resumed = SaveGame.read(file).restore();
+            long end = System.nanoTime();
+            sink += resumed.getEnemies().size();
+            if (i >= runs) { // The first half warms up
+                saveNanos += saved - start;
+                resumeNanos += end - saved;
+            }
+        }
+        System.out.printf("%s: %d bytes, save %.2f ms, resume %.2f ms (%d)%n", name, Files.size(file),
+                saveNanos / 1e6 / runs, resumeNanos / 1e6 / runs, sink % 10);
+    }
+
+    private static GameWorld crowdedWorld(int enemyCount) {
+        GameWorld world = new GameWorld(SEED, TICK_NANOS);
+        EnemyStore enemies = world.getEnemies();
+        enemies.clear();
+        String[] types = {"swooping", "shooting", "capturing"};
+        for (int i = 0; i < enemyCount; i++) {
+            EnemyFactory.createEnemy(types[i % 3], (i * 50) % 750, ((i * 50) / 750 * 45) % 400, enemies, new GameRandom(i));
+        }
+        for (int i = 0; i < 50; i++) world.tick(i % 3 == 0 ? GameWorld.INPUT_FIRE : 0);
+        return world;
+    }
+}
@@ -0,0 +1,94 @@
+package galaga;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of drawing the starfield background onto a board-sized image, each frame at a new
+ * time so the raster is rewritten every call. The naive way, a clear and a fillRect per
+ * star, is timed alongside at the field's star count and ten times it; the raster's cost
+ * is mostly its one blit, so it barely changes with the number of stars. The main method
+ * passes when a raster frame takes under 1 ms.
+ * Build with mvn package, then run:
+ *   java -cp target/bench/benchmarks.jar galaga.StarfieldBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class StarfieldBenchmark {
+    private static final long FRAME_NANOS = 16_666_667L;
+
+    @State(Scope.Thread)
+    public static class Board {
+        final Starfield starfield = new Starfield(GameWorld.BOARD_WIDTH, GameWorld.BOARD_HEIGHT, 1);
+        final BufferedImage image = new BufferedImage(GameWorld.BOARD_WIDTH, GameWorld.BOARD_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g;
+        long now = 0;
+
+        @Setup
+        public void setUp() {
+            g = image.createGraphics();
+        }
+
+        @TearDown
+        public void tearDown() {
+            g.dispose();
+        }
+    }
+
+    // Random stars for the fillRect comparison, as many as the field has times a factor
+    @State(Scope.Thread)
+    public static class Stars {
+        @Param({"1", "10"})
+        public int timesField;
+        int[] x, y;
+
+        @Setup
+        public void setUp(Board board) {
+            int stars = board.starfield.size() * timesField;
+            GameRandom rand = new GameRandom(1);
+            x = new int[stars];
+            y = new int[stars];
+            for (int i = 0; i < stars; i++) {
+                x[i] = rand.nextInt(GameWorld.BOARD_WIDTH);
+                y[i] = rand.nextInt(GameWorld.BOARD_HEIGHT);
+            }
+        }
+    }
+
+    @Benchmark
+    public int raster(Board board) {
+        board.now += FRAME_NANOS;
+        board.starfield.draw(board.g, board.now);
+        return board.image.getRGB(400, 300);
+    }
+
+    @Benchmark
+    public int fillRect(Board board, Stars stars) {
+        board.now += FRAME_NANOS;
+        int scroll = (int) (board.now / 100_000_000L);
+        Graphics2D g = board.g;
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, board.image.getWidth(), board.image.getHeight());
+        g.setColor(Color.WHITE);
+        for (int i = 0; i < stars.x.length; i++) g.fillRect(stars.x[i], (stars.y[i] + scroll) % GameWorld.BOARD_HEIGHT, 1, 1);
+        return board.image.getRGB(400, 300);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        List<Bench.Measurement> results = Bench.run(Bench.options(StarfieldBenchmark.class).build());
+        for (Bench.Measurement m : results) {
+            if (m.name().equals("raster") && m.nanosPerOp() > 1_000_000) {
+                System.out.println("FAILED: the starfield takes over a millisecond per frame");
+                System.exit(1);
+            }
+        }
+    }
+}
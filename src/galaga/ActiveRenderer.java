@@ -0,0 +1,88 @@
+package galaga;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.VolatileImage;
+import java.util.function.Consumer;
+
+/**
+ * Renders frames into an accelerated VolatileImage back buffer and copies it to the
+ * screen immediately, instead of waiting for repaint() to be coalesced into a paint.
+ * Lost or incompatible surfaces are recreated and the frame is drawn again.
+ */
+public class ActiveRenderer {
+    private static final int MAX_ATTEMPTS = 3; // Give up on a frame if the surface keeps getting lost
+
+    private final JComponent target;
+    private final Consumer<Graphics> scene;
+    private VolatileImage backBuffer;
+
+    /**
+     * @param target Component the finished frame is copied onto
+     * @param scene Draws one frame; must work with any Graphics, as in paintComponent
+     */
+    public ActiveRenderer(JComponent target, Consumer<Graphics> scene) {
+        this.target = target;
+        this.scene = scene;
+    }
+
+    /**
+     * Checks whether active rendering was requested with -Dgalaga.activeRendering=true.
+     * @return true if frames should be presented by this renderer
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("galaga.activeRendering") && !GraphicsEnvironment.isHeadless();
+    }
+
+    /**
+     * Draws and presents one frame. Must be called on the Swing event thread.
+     * @return true if the frame reached the screen, false if the caller should fall back to repaint()
+     */
+    public boolean present() {
+        GraphicsConfiguration gc = target.getGraphicsConfiguration();
+        int width = target.getWidth();
+        int height = target.getHeight();
+        if (gc == null || width <= 0 || height <= 0 || !target.isShowing()) return false;
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (backBuffer == null || backBuffer.getWidth() != width || backBuffer.getHeight() != height
+                    || backBuffer.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (backBuffer != null) backBuffer.flush();
+                backBuffer = gc.createCompatibleVolatileImage(width, height);
+            }
+
+            Graphics2D g = backBuffer.createGraphics();
+            try {
+                g.setColor(target.getBackground());
+                g.fillRect(0, 0, width, height);
+                scene.accept(g);
+            } finally {
+                g.dispose();
+            }
+            if (backBuffer.contentsLost()) continue; // Surface went away mid-frame, draw it again
+
+            Graphics screen = target.getGraphics();
+            if (screen == null) return false;
+            try {
+                screen.drawImage(backBuffer, 0, 0, null);
+            } finally {
+                screen.dispose();
+            }
+            if (!backBuffer.contentsLost()) {
+                Toolkit.getDefaultToolkit().sync();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Releases the video memory held by the back buffer.
+     */
+    public void dispose() {
+        if (backBuffer != null) {
+            backBuffer.flush();
+            backBuffer = null;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package galaga;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sprites already decoded and scaled, packed into one memory-mapped file so startup
+ * copies pixels instead of decoding images. AssetPacker writes it from the files in
+ * Sprites/; an entry whose source file has changed since is ignored, so a stale bundle
+ * costs speed and never shows an old sprite.
+ *
+ * File layout, big-endian:
+ *   "GPAK" magic, version (int), entry count (int),
+ *   entries: file name (short length and UTF-8 bytes), width, height (ints),
+ *            source file's modification time in ms (long), offset of its pixels (int),
+ *   pixels: width * height ARGB ints per entry.
+ */
+public class AssetBundle {
+    public static final Path DEFAULT_FILE = Path.of("Sprites", "sprites.bundle");
+    private static final int MAGIC = 0x4750414B; // "GPAK"
+    private static final int VERSION = 1;
+
+    /**
+     * A sprite file at the size the game draws it.
+     */
+    public record Sprite(String file, int width, int height) {
+        String key() {
+            return file + "@" + width + "x" + height;
+        }
+    }
+
+    private record Entry(long modified, int offset) {}
+
+    private final MappedByteBuffer data;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private AssetBundle(MappedByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.getInt(0) != MAGIC) throw new IOException("Not an asset bundle");
+        if (data.getInt(4) != VERSION) throw new IOException("Unsupported asset bundle version " + data.getInt(4));
+        ByteBuffer index = data.duplicate().position(12);
+        int count = data.getInt(8);
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[index.getShort() & 0xFFFF];
+            index.get(name);
+            Sprite sprite = new Sprite(new String(name, StandardCharsets.UTF_8), index.getInt(), index.getInt());
+            Entry entry = new Entry(index.getLong(), index.getInt());
+            if (entry.offset() < 0 || (long) entry.offset() + 4L * sprite.width() * sprite.height() > data.capacity()) {
+                throw new IOException("Asset bundle is truncated");
+            }
+            entries.put(sprite.key(), entry);
+        }
+    }
+
+    /**
+     * Maps a bundle and reads its index; pixels are only touched when read.
+     */
+    public static AssetBundle open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel closes
+            return new AssetBundle(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (RuntimeException e) { // Buffer under- or overflow from a damaged index
+            throw new IOException("Asset bundle is corrupt: " + e);
+        }
+    }
+
+    /**
+     * Copies a sprite's pixels out of the bundle. Safe to call from several threads.
+     * @return A new ARGB image, or null if the bundle lacks it or its source file has changed
+     */
+    public BufferedImage read(Sprite sprite) {
+        Entry entry = entries.get(sprite.key());
+        if (entry == null || isStale(sprite.file(), entry.modified())) return null;
+        BufferedImage image = new BufferedImage(sprite.width(), sprite.height(), BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        IntBuffer source = data.slice(entry.offset(), pixels.length * 4).asIntBuffer();
+        source.get(pixels);
+        return image;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // A bundle shipped without the source files is trusted as it is
+    private static boolean isStale(String file, long modified) {
+        try {
+            Path path = Path.of(file);
+            return Files.exists(path) && Files.getLastModifiedTime(path).toMillis() != modified;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a bundle of the given sprites, decoding and scaling each one as SpriteCache
+     * does. The file is written under a temporary name and renamed into place.
+     * @return Sprites that could not be loaded and were left out
+     */
+    public static List<Sprite> write(Path file, List<Sprite> sprites) throws IOException {
+        List<Sprite> packed = new ArrayList<>();
+        List<Sprite> missing = new ArrayList<>();
+        List<int[]> pixels = new ArrayList<>();
+        for (Sprite sprite : sprites) {
+            BufferedImage image = SpriteCache.decode(sprite.file(), sprite.width(), sprite.height());
+            if (image == null) {
+                missing.add(sprite);
+                continue;
+            }
+            packed.add(sprite);
+            pixels.add(image.getRGB(0, 0, sprite.width(), sprite.height(), null, 0, sprite.width()));
+        }
+
+        int indexSize = 12;
+        for (Sprite sprite : packed) {
+            indexSize += 2 + sprite.file().getBytes(StandardCharsets.UTF_8).length + 4 + 4 + 8 + 4;
+        }
+        int size = indexSize;
+        for (int[] p : pixels) size += p.length * 4;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(packed.size());
+        int offset = indexSize;
+        for (int i = 0; i < packed.size(); i++) {
+            Sprite sprite = packed.get(i);
+            byte[] name = sprite.file().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) name.length).put(name);
+            buffer.putInt(sprite.width()).putInt(sprite.height());
+            buffer.putLong(Files.getLastModifiedTime(Path.of(sprite.file())).toMillis());
+            buffer.putInt(offset);
+            offset += pixels.get(i).length * 4;
+        }
+        for (int[] p : pixels) {
+            buffer.asIntBuffer().put(p);
+            buffer.position(buffer.position() + p.length * 4);
+        }
+        buffer.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return missing;
+    }
+}
@@ -0,0 +1,101 @@
+package galaga;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads every sprite the game draws into the SpriteCache before the first frame. Sprites
+ * come from the asset bundle when it has an up-to-date copy and are decoded from their
+ * files otherwise; either way they load in parallel on the common ForkJoin pool.
+ */
+public class AssetLoader {
+
+    /**
+     * Told about each sprite as it finishes, from whichever thread loaded it.
+     */
+    public interface Listener {
+        void loaded(int done, int total, AssetBundle.Sprite sprite);
+    }
+
+    /**
+     * Outcome of a load.
+     * @param fromBundle Sprites copied out of the bundle
+     * @param decoded Sprites decoded from their image files
+     * @param missing Sprites found in neither; they are drawn as plain shapes
+     */
+    public record Result(int fromBundle, int decoded, List<AssetBundle.Sprite> missing) {}
+
+    private AssetLoader() {}
+
+    /**
+     * @return Every sprite the game draws, at the size it draws it
+     */
+    public static List<AssetBundle.Sprite> gameSprites() {
+        List<AssetBundle.Sprite> sprites = new ArrayList<>();
+        for (EnemyArchetype archetype : EnemyFactory.ARCHETYPES) {
+            for (String file : archetype.sprites) {
+                sprites.add(new AssetBundle.Sprite(file, EnemyStore.SIZE, EnemyStore.SIZE));
+            }
+        }
+        sprites.add(new AssetBundle.Sprite(Hero.SPRITE, Hero.WIDTH, Hero.HEIGHT));
+        sprites.add(new AssetBundle.Sprite(PlayGame.LOGO, PlayGame.LOGO_WIDTH, PlayGame.LOGO_HEIGHT));
+        return sprites;
+    }
+
+    /**
+     * Loads the game's sprites, using the bundle at the given path if there is one.
+     * @param listener Progress callback, or null
+     */
+    public static Result load(Path bundleFile, Listener listener) {
+        AssetBundle bundle = null;
+        if (Files.exists(bundleFile)) {
+            try {
+                bundle = AssetBundle.open(bundleFile);
+            } catch (IOException e) {
+                System.err.println("Ignoring asset bundle: " + e.getMessage());
+            }
+        }
+        return load(bundle, gameSprites(), listener);
+    }
+
+    /**
+     * Loads sprites into the SpriteCache, waiting until all are done.
+     * @param bundle Bundle to copy sprites from, or null to decode every file
+     */
+    public static Result load(AssetBundle bundle, List<AssetBundle.Sprite> sprites, Listener listener) {
+        AtomicInteger done = new AtomicInteger(), fromBundle = new AtomicInteger();
+        List<AssetBundle.Sprite> missing = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[sprites.size()];
+        for (int i = 0; i < tasks.length; i++) {
+            AssetBundle.Sprite sprite = sprites.get(i);
+            tasks[i] = CompletableFuture.runAsync(() -> {
+                BufferedImage image = bundle != null ? bundle.read(sprite) : null;
+                if (image != null) {
+                    fromBundle.incrementAndGet();
+                    image = SpriteCache.compatible(image);
+                } else {
+                    image = SpriteCache.decode(sprite.file(), sprite.width(), sprite.height());
+                }
+
+                if (image == null) {
+                    missing.add(sprite);
+                    SpriteCache.markMissing(sprite.file());
+                } else {
+                    CollisionMask mask = sprite.width() <= 64 ? CollisionMask.of(image) : null; // Masks fit a long per row
+                    SpriteCache.put(sprite.file(), sprite.width(), sprite.height(), image, mask);
+                }
+                if (listener != null) listener.loaded(done.incrementAndGet(), tasks.length, sprite);
+            }, ForkJoinPool.commonPool());
+        }
+        CompletableFuture.allOf(tasks).join();
+        return new Result(fromBundle.get(), sprites.size() - fromBundle.get() - missing.size(), List.copyOf(missing));
+    }
+}
@@ -0,0 +1,25 @@
+package galaga;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Build step that packs every sprite the game draws into an AssetBundle. Run from the
+ * project root after changing anything in Sprites/:
+ *   java -Djava.awt.headless=true -cp target/galaga/galaga.jar galaga.AssetPacker [bundle file]
+ */
+public class AssetPacker {
+    public static void main(String[] args) throws IOException {
+        Path file = args.length > 0 ? Path.of(args[0]) : AssetBundle.DEFAULT_FILE;
+        List<AssetBundle.Sprite> sprites = AssetLoader.gameSprites();
+        List<AssetBundle.Sprite> missing = AssetBundle.write(file, sprites);
+        for (AssetBundle.Sprite sprite : missing) {
+            System.err.println("Missing " + sprite.file() + ", left out of the bundle");
+        }
+        System.out.printf("Packed %d sprites into %s, %d bytes%n",
+                sprites.size() - missing.size(), file, Files.size(file));
+        if (!missing.isEmpty()) System.exit(1);
+    }
+}
@@ -0,0 +1,142 @@
+package galaga;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A dive flown by enemies, compiled from cubic Bezier curves into a table of offsets from
+ * the enemy's starting point, one entry per tick. The entries are spaced evenly along the
+ * curve rather than evenly in the curve parameter, so enemies keep a constant speed
+ * through tight turns. Paths are shared by every enemy flying them; an enemy only keeps
+ * its index into the table, and flying a tick is two array reads.
+ */
+public class AttackPath {
+    public static final int SPEED = 4; // Pixels along the path per tick
+    private static final int SAMPLES_PER_CURVE = 64; // Polyline resolution used to measure length
+
+    /**
+     * The swooping enemy's dive: a short loop out to the right, a long curve down past the
+     * hero's row, a sweep back along the bottom and a climb back into formation. Mirror it
+     * to dive to the left.
+     */
+    public static final AttackPath SWOOP = compile(
+            0, 0, 0, -60, 70, -60, 70, 0,
+            70, 150, -60, 200, -40, 300,
+            -30, 350, 120, 340, 130, 250,
+            140, 160, 0, 80, 0, 0);
+
+    // Capture dives by depth plus MAX_DIVE, indexed directly so a lookup boxes no key
+    private static final int MAX_DIVE = GameWorld.BOARD_HEIGHT;
+    private static final AtomicReferenceArray<AttackPath> captureDives = new AtomicReferenceArray<>(2 * MAX_DIVE + 1);
+
+    private final int[] dx, dy;
+
+    private AttackPath(int[] dx, int[] dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    /**
+     * The capturing enemy's dive: an S-curve that ends straight below its start. Each depth
+     * is compiled once and then shared. GameWorld compiles the depths its wave plan's slots
+     * dive to when it is created; any other depth compiles on its first dive.
+     * @param depth Pixels between the start and the end of the dive
+     */
+    public static AttackPath captureDive(int depth) {
+        if (Math.abs(depth) > MAX_DIVE) return compileDive(depth); // Off the board; only a corrupt state asks
+        AttackPath path = captureDives.get(depth + MAX_DIVE);
+        if (path == null) {
+            captureDives.compareAndSet(depth + MAX_DIVE, null, compileDive(depth));
+            path = captureDives.get(depth + MAX_DIVE);
+        }
+        return path;
+    }
+
+    private static AttackPath compileDive(int depth) {
+        return compile(0, 0, 60, depth / 4, -60, depth * 3 / 4, 0, depth);
+    }
+
+    /**
+     * Compiles a chain of cubic Bezier curves.
+     * @param points x, y pairs: the start point, then three points per curve (two control
+     *               points and the end point, which the next curve starts from)
+     */
+    public static AttackPath compile(int... points) {
+        if (points.length < 8 || (points.length - 2) % 6 != 0) {
+            throw new IllegalArgumentException("Expected a start point and three points per curve");
+        }
+
+        // Flatten the curves into a fine polyline
+        int curves = (points.length - 2) / 6;
+        int vertices = curves * SAMPLES_PER_CURVE + 1;
+        double[] px = new double[vertices], py = new double[vertices];
+        px[0] = points[0];
+        py[0] = points[1];
+        for (int c = 0; c < curves; c++) {
+            int p = c * 6;
+            for (int s = 1; s <= SAMPLES_PER_CURVE; s++) {
+                double t = (double) s / SAMPLES_PER_CURVE, u = 1 - t;
+                double b0 = u * u * u, b1 = 3 * u * u * t, b2 = 3 * u * t * t, b3 = t * t * t;
+                int v = c * SAMPLES_PER_CURVE + s;
+                px[v] = b0 * points[p] + b1 * points[p + 2] + b2 * points[p + 4] + b3 * points[p + 6];
+                py[v] = b0 * points[p + 1] + b1 * points[p + 3] + b2 * points[p + 5] + b3 * points[p + 7];
+            }
+        }
+
+        // Walk the polyline, emitting a point every SPEED pixels of length
+        int[] dx = new int[64], dy = new int[64];
+        int count = 0;
+        dx[count] = (int) Math.round(px[0]);
+        dy[count++] = (int) Math.round(py[0]);
+        double carried = 0; // Length walked since the last emitted point
+        for (int v = 1; v < vertices; v++) {
+            double segX = px[v] - px[v - 1], segY = py[v] - py[v - 1];
+            double length = Math.sqrt(segX * segX + segY * segY);
+            double along = SPEED - carried; // Distance into this segment of the next point
+            while (along <= length) {
+                if (count == dx.length) {
+                    dx = Arrays.copyOf(dx, count * 2);
+                    dy = Arrays.copyOf(dy, count * 2);
+                }
+                double f = along / length;
+                dx[count] = (int) Math.round(px[v - 1] + segX * f);
+                dy[count++] = (int) Math.round(py[v - 1] + segY * f);
+                along += SPEED;
+            }
+            carried = length - (along - SPEED);
+        }
+
+        // Always finish exactly on the end point
+        int endX = points[points.length - 2], endY = points[points.length - 1];
+        if (dx[count - 1] != endX || dy[count - 1] != endY) {
+            if (count == dx.length) {
+                dx = Arrays.copyOf(dx, count + 1);
+                dy = Arrays.copyOf(dy, count + 1);
+            }
+            dx[count] = endX;
+            dy[count++] = endY;
+        }
+        return new AttackPath(Arrays.copyOf(dx, count), Arrays.copyOf(dy, count));
+    }
+
+    /**
+     * @return Number of points; flying the whole path takes length() - 1 ticks
+     */
+    public int length() {
+        return dx.length;
+    }
+
+    /**
+     * @return Horizontal offset from the start at the given point
+     */
+    public int dx(int index) {
+        return dx[index];
+    }
+
+    /**
+     * @return Vertical offset from the start at the given point
+     */
+    public int dy(int index) {
+        return dy[index];
+    }
+}
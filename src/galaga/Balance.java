@@ -0,0 +1,32 @@
+package galaga;
+
+/**
+ * The difficulty settings a GameWorld is played with. standard() is the game as shipped;
+ * BalanceRunner plays variations of it to see how each setting changes a run.
+ * @param waves Which enemies each wave brings, and when
+ * @param fireChance Percent chance per tick that an enemy able to shoot fires
+ * @param captureDelay Milliseconds between a capturing enemy's dives
+ * @param swoopInterval Milliseconds between swoop dives
+ */
+public record Balance(WavePlan waves, int fireChance, int captureDelay, int swoopInterval) {
+    public static final int FIRE_CHANCE = EnemyFactory.SHOOTING.fireChance;
+    public static final int CAPTURE_DELAY = 7000;
+    public static final int SWOOP_INTERVAL = 6000;
+
+    private static Balance standard; // Built on first use, since it reads the wave script
+
+    /**
+     * @return The shipped settings with WavePlan.standard()'s waves
+     * @throws java.io.UncheckedIOException If the wave script is missing or invalid
+     */
+    public static synchronized Balance standard() {
+        if (standard == null) standard = new Balance(WavePlan.standard(), FIRE_CHANCE, CAPTURE_DELAY, SWOOP_INTERVAL);
+        return standard;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("waves %s, fire %d%%, capture every %d ms, swoop every %d ms",
+                waves.name(), fireChance, captureDelay, swoopInterval);
+    }
+}
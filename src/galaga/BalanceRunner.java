@@ -0,0 +1,209 @@
+package galaga;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Plays thousands of seeded games with a heuristic bot on every core and reports how far
+ * it gets under each Balance, for tuning difficulty without playing by hand. Any setting
+ * can be given as a comma list; every combination is played on the same seeds, so a
+ * difference between two rows comes from the settings rather than from luck.
+ * Run with:
+ *   java -Djava.awt.headless=true -cp target/galaga/galaga.jar galaga.BalanceRunner [games=2000] [ticks=30000] [seed=1]
+ *       [threads=cores] [waves=Waves/waves.txt] [fire=2] [capture=7000] [swoop=6000]
+ * for example fire=1,2,3 to compare three fire chances, or waves=a.txt,b.txt to compare
+ * two wave scripts.
+ */
+public class BalanceRunner {
+    private static final long TICK_NANOS = 20_000_000L;
+    private static final int DODGE_HEIGHT = 160; // How far above the ship the bot watches for danger
+
+    // Outcome of every game of one Balance, one slot per game
+    private static class Results {
+        final Balance balance;
+        final int[] wave, score, ticks;
+        final int[][] lost = new int[3][];
+
+        Results(Balance balance, int games) {
+            this.balance = balance;
+            wave = new int[games];
+            score = new int[games];
+            ticks = new int[games];
+            for (int i = 0; i < lost.length; i++) lost[i] = new int[games];
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int games = 2000, maxTicks = 30_000, threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        List<WavePlan> plans = null; // The standard waves unless others are given
+        int[] fireChances = {Balance.FIRE_CHANCE};
+        int[] captureDelays = {Balance.CAPTURE_DELAY}, swoopIntervals = {Balance.SWOOP_INTERVAL};
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String key = eq < 0 ? arg : arg.substring(0, eq), value = arg.substring(eq + 1);
+            switch (key) {
+                case "games" -> games = Integer.parseInt(value);
+                case "ticks" -> maxTicks = Integer.parseInt(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "threads" -> threads = Integer.parseInt(value);
+                case "waves" -> {
+                    plans = new ArrayList<>();
+                    for (String file : value.split(",")) plans.add(WavePlan.read(Path.of(file.trim())));
+                }
+                case "fire" -> fireChances = list(value);
+                case "capture" -> captureDelays = list(value);
+                case "swoop" -> swoopIntervals = list(value);
+                default -> {
+                    System.err.println("Unknown option " + arg);
+                    System.exit(2);
+                }
+            }
+        }
+
+        if (plans == null) plans = List.of(WavePlan.standard());
+        List<Balance> balances = new ArrayList<>();
+        for (WavePlan plan : plans) {
+            for (int fire : fireChances) {
+                for (int capture : captureDelays) {
+                    for (int swoop : swoopIntervals) balances.add(new Balance(plan, fire, capture, swoop));
+                }
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        System.out.printf("%d games per setting, at most %d ticks each, on %d threads%n", games, maxTicks, threads);
+        for (Balance balance : balances) {
+            Results results = new Results(balance, games);
+            long firstSeed = seed, ticks = maxTicks;
+            long start = System.nanoTime();
+            // Each game writes only its own slots, so the workers share nothing
+            pool.submit(() -> IntStream.range(0, results.wave.length).parallel()
+                    .forEach(i -> play(results, i, firstSeed + i, (int) ticks))).join();
+            long elapsed = System.nanoTime() - start;
+            report(results, maxTicks, elapsed);
+        }
+        pool.shutdown();
+    }
+
+    private static int[] list(String value) {
+        return Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+    }
+
+    private static void play(Results results, int game, long seed, int maxTicks) {
+        GameWorld world = new GameWorld(seed, TICK_NANOS, results.balance);
+        while (world.getTicks() < maxTicks && !world.isGameOver()) {
+            world.tick(botInput(world));
+        }
+        results.wave[game] = world.getWave();
+        results.score[game] = world.getScore();
+        results.ticks[game] = (int) world.getTicks();
+        for (int cause = 0; cause < results.lost.length; cause++) {
+            results.lost[cause][game] = world.getLivesLost(cause);
+        }
+    }
+
+    /**
+     * A player of moderate skill: steps away from the nearest bullet, beam or diving enemy
+     * coming down on the ship, and otherwise lines up under the nearest enemy, always firing.
+     */
+    static int botInput(GameWorld world) {
+        Hero hero = world.getHero();
+        int center = hero.x + hero.getHitWidth() / 2;
+
+        // Closest threat above the ship and within reach of it sideways
+        int threatX = Integer.MIN_VALUE, threatDistance = Integer.MAX_VALUE;
+        ProjectileStore bullets = world.getEnemyBullets();
+        for (int i = 0; i < bullets.size(); i++) {
+            int below = hero.y - bullets.y[i];
+            int bx = bullets.x[i] + bullets.width / 2;
+            if (below > -bullets.height && below < DODGE_HEIGHT && Math.abs(bx - center) < hero.getHitWidth()
+                    && below < threatDistance) {
+                threatX = bx;
+                threatDistance = below;
+            }
+        }
+        EnemyStore enemies = world.getEnemies();
+        int targetX = Integer.MIN_VALUE, targetDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < enemies.size(); i++) {
+            int ex = enemies.x[i] + EnemyStore.SIZE / 2;
+            int below = hero.y - enemies.y[i];
+            boolean diving = enemies.stage[i] != EnemyStore.IDLE;
+            if (diving && below < DODGE_HEIGHT + EnemyStore.SIZE && Math.abs(ex - center) < hero.getHitWidth() + EnemyStore.SIZE / 2
+                    && below < threatDistance) {
+                threatX = ex;
+                threatDistance = below;
+            }
+            if (Math.abs(ex - center) < targetDistance) {
+                targetX = ex;
+                targetDistance = Math.abs(ex - center);
+            }
+        }
+
+        int input = GameWorld.INPUT_FIRE;
+        if (threatX != Integer.MIN_VALUE) {
+            boolean goLeft = threatX > center;
+            if (goLeft && hero.x <= 0) goLeft = false; // Cornered, so run the other way
+            if (!goLeft && hero.x >= 750) goLeft = true;
+            input |= goLeft ? GameWorld.INPUT_LEFT : GameWorld.INPUT_RIGHT;
+        } else if (targetX != Integer.MIN_VALUE && Math.abs(targetX - center) > 5) {
+            input |= targetX < center ? GameWorld.INPUT_LEFT : GameWorld.INPUT_RIGHT;
+        }
+        return input;
+    }
+
+    private static void report(Results r, int maxTicks, long elapsedNanos) {
+        int games = r.wave.length;
+        int capped = 0;
+        long totalTicks = 0;
+        for (int i = 0; i < games; i++) {
+            if (r.ticks[i] >= maxTicks) capped++;
+            totalTicks += r.ticks[i];
+        }
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%n%s%n", r.balance);
+        System.out.printf("  %.0f games/s, %.2f M ticks/s, %d of %d games still alive at the tick limit%n",
+                games / seconds, totalTicks / seconds / 1e6, capped, games);
+        System.out.println("  wave reached: " + percentiles(r.wave));
+        System.out.println("  score:        " + percentiles(r.score));
+        long beam = sum(r.lost[GameWorld.HIT_BEAM]), ram = sum(r.lost[GameWorld.HIT_RAM]),
+                bullet = sum(r.lost[GameWorld.HIT_BULLET]);
+        long lost = Math.max(1, beam + ram + bullet);
+        System.out.printf("  lives lost per game %.2f: beam %.0f%%, ram %.0f%%, bullet %.0f%%%n",
+                (double) (beam + ram + bullet) / games, 100.0 * beam / lost, 100.0 * ram / lost, 100.0 * bullet / lost);
+
+        // Histogram of the wave each game ended on
+        int[] sorted = r.wave.clone();
+        Arrays.sort(sorted);
+        int maxWave = sorted[games - 1];
+        int[] counts = new int[maxWave + 1];
+        for (int wave : sorted) counts[wave]++;
+        int widest = Arrays.stream(counts).max().orElse(1);
+        for (int wave = sorted[0]; wave <= maxWave; wave++) {
+            int bar = (int) Math.round(40.0 * counts[wave] / widest);
+            System.out.printf("  wave %3d %6d %s%n", wave, counts[wave], "#".repeat(bar));
+        }
+    }
+
+    private static String percentiles(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return String.format("min %d, p10 %d, median %d, p90 %d, max %d", sorted[0], at(sorted, 0.1),
+                at(sorted, 0.5), at(sorted, 0.9), sorted[sorted.length - 1]);
+    }
+
+    private static int at(int[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (fraction * sorted.length))];
+    }
+
+    private static long sum(int[] values) {
+        long total = 0;
+        for (int v : values) total += v;
+        return total;
+    }
+}
@@ -0,0 +1,39 @@
+package galaga;
+
+/**
+ * Allocation-free overlap tests on primitive coordinates, used by the collision pass
+ * instead of building Rectangle and Polygon objects every tick.
+ */
+public class Collision {
+    private Collision() {}
+
+    /**
+     * Same result as Rectangle.intersects for boxes with positive sizes.
+     * @return true if the two boxes share any interior area
+     */
+    public static boolean overlaps(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return ax < bx + bw && bx < ax + aw && ay < by + bh && by < ay + ah;
+    }
+
+    /**
+     * Tests a box against an upright isosceles triangle with its apex on top and a
+     * horizontal base, such as the capturing enemy's tractor beam.
+     * @param apexX Horizontal position of the apex
+     * @param apexY Vertical position of the apex
+     * @param halfBase Half the width of the base
+     * @param height Distance from the apex down to the base
+     * @return true if the box and the triangle share any interior area
+     */
+    public static boolean overlapsBeam(int apexX, int apexY, int halfBase, int height,
+                                       int bx, int by, int bw, int bh) {
+        int baseY = apexY + height;
+        if (by >= baseY || by + bh <= apexY) return false;
+
+        // The triangle is widest at the lowest row the box covers
+        int lowest = Math.min(by + bh, baseY);
+        long reach = (long) (lowest - apexY) * halfBase; // Half-width at that row, scaled by height
+        long left = (long) apexX * height - reach;
+        long right = (long) apexX * height + reach;
+        return (long) bx * height < right && (long) (bx + bw) * height > left;
+    }
+}
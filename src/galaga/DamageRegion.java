@@ -0,0 +1,168 @@
+package galaga;
+
+import java.util.Arrays;
+
+/**
+ * Works out which parts of the board changed between two frames. Each frame reports the
+ * boxes it draws; the boxes drawn in the previous frame are added too, since whatever was
+ * there must be erased. The boxes mark 16 pixel tiles, and runs of marked tiles are merged
+ * into rectangles row by row, with a rectangle grown downward while the next row has the
+ * same run. Merging tiles rather than boxes keeps the work bounded by the tile count no
+ * matter how many entities there are.
+ */
+public class DamageRegion {
+    static final int TILE = 16;
+    private static final double FULL_REPAINT_FRACTION = 0.5; // Past this, one full repaint is cheaper
+    private static final int MAX_RECTS = 48;                  // Each rectangle costs a separate paint pass
+
+    private final int width, height;
+    private final int cols, rows;
+    private final boolean[] dirty;
+    private int[] above, here;     // Per column: rectangle whose run starts there, or -1, for two rows
+
+    // Boxes drawn this frame and last frame, as x, y, w, h quadruples
+    private int[] current = new int[256];
+    private int[] previous = new int[256];
+    private int currentCount = 0, previousCount = 0;
+
+    // Merged result of the latest finish()
+    private int[] rects = new int[MAX_RECTS * 4];
+    private int rectCount = 0;
+    private boolean full;
+    private boolean invalidated = true; // The first frame has nothing to compare with
+
+    public DamageRegion(int width, int height) {
+        this.width = width;
+        this.height = height;
+        cols = (width + TILE - 1) / TILE;
+        rows = (height + TILE - 1) / TILE;
+        dirty = new boolean[cols * rows];
+        above = new int[cols];
+        here = new int[cols];
+    }
+
+    /**
+     * Reports a box drawn in the frame being built.
+     */
+    public void add(int x, int y, int w, int h) {
+        if (w <= 0 || h <= 0) return;
+        int i = currentCount * 4;
+        if (i == current.length) current = Arrays.copyOf(current, i * 2);
+        current[i] = x;
+        current[i + 1] = y;
+        current[i + 2] = w;
+        current[i + 3] = h;
+        currentCount++;
+    }
+
+    /**
+     * Makes the next finish() ask for a full repaint, for changes that are not tied to
+     * any one box, such as screens opening and closing.
+     */
+    public void invalidateAll() {
+        invalidated = true;
+    }
+
+    /**
+     * Closes the frame being built and merges its boxes with the previous frame's.
+     * @return true if the whole board should be repainted instead of the rectangles
+     */
+    public boolean finish() {
+        boolean forceFull = invalidated;
+        invalidated = false;
+        Arrays.fill(dirty, false);
+        int dirtyTiles = mark(current, currentCount) + mark(previous, previousCount);
+
+        int[] swap = previous;
+        previous = current;
+        current = swap;
+        previousCount = currentCount;
+        currentCount = 0;
+
+        full = forceFull || dirtyTiles > FULL_REPAINT_FRACTION * cols * rows || !merge();
+        return full;
+    }
+
+    public int getRectCount() {
+        return full ? 0 : rectCount;
+    }
+
+    public int getX(int i) {
+        return rects[i * 4];
+    }
+
+    public int getY(int i) {
+        return rects[i * 4 + 1];
+    }
+
+    public int getWidth(int i) {
+        return rects[i * 4 + 2];
+    }
+
+    public int getHeight(int i) {
+        return rects[i * 4 + 3];
+    }
+
+    // Marks the tiles under each box, clamped to the board; returns how many were newly marked
+    private int mark(int[] boxes, int count) {
+        int marked = 0;
+        for (int b = 0; b < count * 4; b += 4) {
+            int c0 = Math.max(0, boxes[b] / TILE);
+            int r0 = Math.max(0, boxes[b + 1] / TILE);
+            int c1 = Math.min(cols - 1, (boxes[b] + boxes[b + 2] - 1) / TILE);
+            int r1 = Math.min(rows - 1, (boxes[b + 1] + boxes[b + 3] - 1) / TILE);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    int t = r * cols + c;
+                    if (!dirty[t]) {
+                        dirty[t] = true;
+                        marked++;
+                    }
+                }
+            }
+        }
+        return marked;
+    }
+
+    // Turns the marked tiles into rectangles; false if there are more than MAX_RECTS
+    private boolean merge() {
+        rectCount = 0;
+        Arrays.fill(above, -1);
+        for (int r = 0; r < rows; r++) {
+            Arrays.fill(here, -1);
+            int c = 0;
+            while (c < cols) {
+                if (!dirty[r * cols + c]) {
+                    c++;
+                    continue;
+                }
+                int start = c;
+                while (c < cols && dirty[r * cols + c]) c++;
+
+                int open = above[start];
+                if (open >= 0 && rects[open * 4 + 2] == (c - start) * TILE) {
+                    rects[open * 4 + 3] += TILE; // Same run as the row above: grow that rectangle
+                    here[start] = open;
+                } else {
+                    if (rectCount == MAX_RECTS) return false;
+                    int i = rectCount * 4;
+                    rects[i] = start * TILE;
+                    rects[i + 1] = r * TILE;
+                    rects[i + 2] = (c - start) * TILE;
+                    rects[i + 3] = TILE;
+                    here[start] = rectCount++;
+                }
+            }
+            int[] swap = above;
+            above = here;
+            here = swap;
+        }
+
+        // Tiles along the right and bottom edges may reach past the board
+        for (int i = 0; i < rectCount * 4; i += 4) {
+            rects[i + 2] = Math.min(rects[i + 2], width - rects[i]);
+            rects[i + 3] = Math.min(rects[i + 3], height - rects[i + 1]);
+        }
+        return true;
+    }
+}
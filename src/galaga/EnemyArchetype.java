@@ -0,0 +1,127 @@
+package galaga;
+
+import java.awt.*;
+
+/**
+ * Everything enemies of one kind share: their starting components and which systems act
+ * on them. EnemyFactory defines the archetypes; a new kind of enemy is a new combination
+ * of these settings rather than a new class.
+ */
+public class EnemyArchetype {
+    final int id;            // Index in EnemyFactory.ARCHETYPES, stored in snapshots
+    final String name;
+    final int health;        // Laser hits it takes
+    final int scoreValue;    // Points for destroying it
+    String[] sprites = {};   // One is picked at random for each enemy
+    Color[] colors = {Color.GREEN}; // Fallback fill when the sprite is missing, by hits taken
+    int patrolSpeed = 0;     // Pixels per tick of side-to-side movement
+    int fireChance = 0;      // Percent chance per tick of firing a bullet
+    boolean swoops = false;  // Picked by the world for Bezier swoop dives
+    boolean captures = false; // Dives on its own timer and fires a tractor beam
+    boolean rams = false;    // Touching the hero costs a life
+    int drawHeight = EnemyStore.SIZE; // Height painted from y down, including any beam
+
+    // Scaled sprites and their collision masks by variant, loaded on first use
+    private volatile Image[] images;
+    private CollisionMask[] masks;
+
+    public EnemyArchetype(int id, String name, int health, int scoreValue) {
+        this.id = id;
+        this.name = name;
+        this.health = health;
+        this.scoreValue = scoreValue;
+    }
+
+    public EnemyArchetype sprites(String... files) {
+        this.sprites = files;
+        return this;
+    }
+
+    /**
+     * @param colors Fallback colors for zero hits taken, one hit and so on; the last is
+     *               used for any further hits
+     */
+    public EnemyArchetype colors(Color... colors) {
+        this.colors = colors;
+        return this;
+    }
+
+    public EnemyArchetype patrols(int speed) {
+        this.patrolSpeed = speed;
+        return this;
+    }
+
+    public EnemyArchetype fires(int percentPerTick) {
+        this.fireChance = percentPerTick;
+        return this;
+    }
+
+    public EnemyArchetype swoops() {
+        this.swoops = true;
+        return this;
+    }
+
+    public EnemyArchetype captures(int drawHeight) {
+        this.captures = true;
+        this.drawHeight = drawHeight;
+        return this;
+    }
+
+    public EnemyArchetype rams() {
+        this.rams = true;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return How many sprite variants there are, at least one even with no sprites
+     */
+    int variants() {
+        return Math.max(1, sprites.length);
+    }
+
+    /**
+     * @return The sprite of a variant, or null if it failed to load
+     */
+    Image image(int variant) {
+        if (images == null) loadSprites();
+        return images[variant];
+    }
+
+    /**
+     * @return The collision mask of a variant; the whole box when its sprite is missing
+     */
+    CollisionMask mask(int variant) {
+        if (images == null) loadSprites();
+        return masks[variant];
+    }
+
+    /**
+     * Loads and scales every sprite and builds its mask, if not done already.
+     */
+    synchronized void loadSprites() {
+        if (images != null) return;
+        int count = variants();
+        Image[] loaded = new Image[count];
+        masks = new CollisionMask[count];
+        for (int v = 0; v < count; v++) {
+            CollisionMask mask = null;
+            if (v < sprites.length) {
+                loaded[v] = SpriteCache.get(sprites[v], EnemyStore.SIZE, EnemyStore.SIZE);
+                mask = SpriteCache.getMask(sprites[v], EnemyStore.SIZE, EnemyStore.SIZE);
+            }
+            masks[v] = mask != null ? mask : CollisionMask.solid(EnemyStore.SIZE, EnemyStore.SIZE);
+        }
+        images = loaded; // Last, since image() and mask() check it unlocked
+    }
+
+    /**
+     * @return Fallback color after the given number of hits
+     */
+    Color color(int hitsTaken) {
+        return colors[Math.min(hitsTaken, colors.length - 1)];
+    }
+}
@@ -0,0 +1,22 @@
+package galaga;
+
+import java.awt.*;
+
+/**
+ * Shape and speed of enemy shots. Live bullets are kept in a ProjectileStore.
+ */
+public class EnemyBullet {
+    public static final int WIDTH = 5;
+    public static final int HEIGHT = 10;
+    public static final int SPEED = 5; // Pixels per tick, moving down
+    public static final Color COLOR = Color.PINK;
+
+    private EnemyBullet() {}
+
+    /**
+     * Creates the store holding every enemy's bullets.
+     */
+    public static ProjectileStore createStore() {
+        return new ProjectileStore(WIDTH, HEIGHT, COLOR, 64);
+    }
+}
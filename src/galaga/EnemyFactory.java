@@ -0,0 +1,61 @@
+package galaga;
+
+import java.awt.*;
+
+public class EnemyFactory {
+    public static final EnemyArchetype SWOOPING = new EnemyArchetype(0, "swooping", 1, 50)
+            .sprites("Sprites/Wasp.png", "Sprites/Butterfly.png")
+            .swoops()
+            .rams();
+
+    public static final EnemyArchetype SHOOTING = new EnemyArchetype(1, "shooting", 2, 100)
+            .sprites("Sprites/Galaxian.png")
+            .colors(Color.RED, new Color(128, 0, 0)) // Deep maroon after 1 shot
+            .patrols(2)
+            .fires(2);
+
+    public static final EnemyArchetype CAPTURING = new EnemyArchetype(2, "capturing", 4, 150)
+            .sprites("Sprites/Galaga.png")
+            .colors(new Color(200, 150, 200), new Color(200, 150, 160), // Darkens with each hit
+                    new Color(200, 150, 120), new Color(200, 150, 80))
+            .captures(80); // Drawn with the beam below the sprite
+
+    // Archetypes by id, as stored in game state snapshots
+    public static final EnemyArchetype[] ARCHETYPES = {SWOOPING, SHOOTING, CAPTURING};
+
+    /**
+     * @return The archetype with the given name, ignoring case
+     */
+    public static EnemyArchetype archetype(String type) {
+        for (EnemyArchetype archetype : ARCHETYPES) {
+            if (archetype.name.equalsIgnoreCase(type)) return archetype;
+        }
+        throw new IllegalArgumentException("Unknown enemy type: " + type);
+    }
+
+    /**
+     * Loads and scales every enemy sprite up front so the first wave doesn't stall on disk reads.
+     */
+    public static void preloadSprites() {
+        for (EnemyArchetype archetype : ARCHETYPES) archetype.loadSprites();
+    }
+
+    /**
+     * Adds an enemy of the named type to the store.
+     * @param rand The world's random source, used to pick the sprite and to seed the
+     *             enemy's own stream, so its shots do not depend on update order
+     * @return Index of the new enemy
+     */
+    public static int createEnemy(String type, int x, int y, EnemyStore enemies, GameRandom rand) {
+        return createEnemy(archetype(type), x, y, enemies, rand);
+    }
+
+    /**
+     * Adds an enemy of an archetype already looked up, as compiled wave plans hold them.
+     */
+    public static int createEnemy(EnemyArchetype archetype, int x, int y, EnemyStore enemies, GameRandom rand) {
+        int variant = archetype.sprites.length > 1 ? rand.nextInt(archetype.sprites.length) : 0;
+        long seed = archetype.fireChance > 0 ? rand.nextLong() : 0;
+        return enemies.add(archetype, x, y, variant, seed);
+    }
+}
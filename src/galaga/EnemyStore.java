@@ -0,0 +1,369 @@
+package galaga;
+
+import java.awt.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Every enemy in the world as parallel component arrays: enemy i is index i of each
+ * array. EnemySystems update the components in straight passes, and behavior comes from
+ * which components an archetype sets rather than from subclasses. Removal is stable, so
+ * an index keeps meaning "earlier in spawn order" for collision priority.
+ */
+public class EnemyStore {
+    public static final int SIZE = 40; // Width and height of every enemy's hitbox and sprite
+
+    // Flag bits copied from the archetype so systems never leave the arrays
+    static final int SWOOPS = 1, CAPTURES = 2, RAMS = 4;
+
+    // Dive stages
+    static final int IDLE = 0, DIVING = 1, FIRING = 2, RETURNING = 3;
+
+    // Identity and looks
+    EnemyArchetype[] type;
+    int[] flags;
+    int[] variant;       // Which of the archetype's sprites
+    Image[] sprite;
+    CollisionMask[] mask; // Solid pixels of the sprite, or its whole box when drawn as a fallback
+
+    // Position
+    int[] x, y;
+    int[] prevX, prevY;  // At the start of the tick, for render interpolation
+    int[] originX, originY; // Place in formation, where dives start and end
+
+    // Velocity and combat
+    int[] vx;            // Patrol speed, its sign giving the direction
+    int[] health;
+    int[] scoreValue;
+    int[] fireChance;    // Percent per tick
+    long[] randState;    // Each shooter's own random stream, stepped with GameRandom.advance
+
+    // AI state: dives follow an AttackPath, forward while diving and backward while returning
+    int[] stage;
+    AttackPath[] path;
+    int[] pathIndex;
+    int[] pathStep;      // +1, -1, or 0 when not moving along the path
+    int[] mirror;        // -1 flies the path mirrored left to right
+    int[] diveDepth;     // Depth a capture dive was compiled for
+    long[] lastAction;   // Game time the last capture dive started, MIN_VALUE before the first update
+    long[] fireStart;    // Game time the beam came on
+
+    int count = 0;
+    int captureDelay = Balance.CAPTURE_DELAY; // Milliseconds between capture dives, for the whole store
+    List<AttackPath> entryPaths = List.of(); // The wave plan's, so saved states can name them
+
+    // Scratch for the beam triangle, so drawing allocates nothing
+    private final int[] beamX = new int[3], beamY = new int[3];
+
+    public EnemyStore(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    /**
+     * Adds an enemy with its archetype's starting components.
+     * @param seed Seed for the enemy's own random stream
+     * @return Its index
+     */
+    public int add(EnemyArchetype type, int x, int y, int variant, long seed) {
+        if (count == this.x.length) allocate(count * 2);
+        int i = count++;
+        this.type[i] = type;
+        flags[i] = (type.swoops ? SWOOPS : 0) | (type.captures ? CAPTURES : 0) | (type.rams ? RAMS : 0);
+        this.variant[i] = variant;
+        sprite[i] = type.image(variant);
+        mask[i] = type.mask(variant);
+        this.x[i] = x;
+        this.y[i] = y;
+        prevX[i] = x;
+        prevY[i] = y;
+        originX[i] = x;
+        originY[i] = y;
+        vx[i] = type.patrolSpeed;
+        health[i] = type.health;
+        scoreValue[i] = type.scoreValue;
+        fireChance[i] = type.fireChance;
+        randState[i] = seed;
+        stage[i] = IDLE;
+        path[i] = null;
+        pathIndex[i] = 0;
+        pathStep[i] = 0;
+        mirror[i] = 1;
+        diveDepth[i] = 0;
+        lastAction[i] = Long.MIN_VALUE;
+        fireStart[i] = 0;
+        return i;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(type, 0, count, null);
+        Arrays.fill(sprite, 0, count, null);
+        Arrays.fill(mask, 0, count, null);
+        Arrays.fill(path, 0, count, null);
+        count = 0;
+    }
+
+    public EnemyArchetype getType(int i) {
+        return type[i];
+    }
+
+    public int getX(int i) {
+        return x[i];
+    }
+
+    public int getY(int i) {
+        return y[i];
+    }
+
+    public void savePositions() {
+        System.arraycopy(x, 0, prevX, 0, count);
+        System.arraycopy(y, 0, prevY, 0, count);
+    }
+
+    /**
+     * Removes every enemy whose health has run out, keeping the rest in order.
+     */
+    public void removeDestroyed() {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (health[i] > 0) {
+                if (kept != i) move(i, kept);
+                kept++;
+            }
+        }
+        Arrays.fill(type, kept, count, null);
+        Arrays.fill(sprite, kept, count, null);
+        Arrays.fill(mask, kept, count, null);
+        Arrays.fill(path, kept, count, null);
+        count = kept;
+    }
+
+    /**
+     * Draws every enemy, with capture beams, between its previous and current position.
+     * @param alpha Interpolation factor between the previous and current tick
+     */
+    public void draw(Graphics g, double alpha) {
+        double back = 1.0 - alpha;
+        for (int i = 0; i < count; i++) {
+            int drawX = x[i] + (int) Math.round((prevX[i] - x[i]) * back);
+            int drawY = y[i] + (int) Math.round((prevY[i] - y[i]) * back);
+            if (sprite[i] != null) {
+                g.drawImage(sprite[i], drawX, drawY, null);
+            } else {
+                // Fallback for if the image fails to load
+                g.setColor(type[i].color(type[i].health - health[i]));
+                g.fillRect(drawX, drawY, SIZE, SIZE);
+            }
+
+            if (stage[i] == FIRING && (flags[i] & CAPTURES) != 0) {
+                g.setColor(Color.CYAN);
+                beamX[0] = drawX + 20;
+                beamX[1] = drawX;
+                beamX[2] = drawX + 40;
+                beamY[0] = drawY + 40;
+                beamY[1] = drawY + 80;
+                beamY[2] = drawY + 80;
+                g.fillPolygon(beamX, beamY, 3);
+            }
+        }
+    }
+
+    /**
+     * Reports the area every enemy is drawn at, beams included.
+     */
+    public void addDamage(DamageRegion damage, double alpha) {
+        double back = 1.0 - alpha;
+        for (int i = 0; i < count; i++) {
+            int drawX = x[i] + (int) Math.round((prevX[i] - x[i]) * back);
+            int drawY = y[i] + (int) Math.round((prevY[i] - y[i]) * back);
+            damage.add(drawX, drawY, SIZE, type[i].drawHeight);
+        }
+    }
+
+    /**
+     * Replaces this store's enemies with copies of another store's.
+     */
+    public void copyFrom(EnemyStore other) {
+        clear();
+        if (x.length < other.count) allocate(other.count);
+        int n = other.count;
+        System.arraycopy(other.type, 0, type, 0, n);
+        System.arraycopy(other.flags, 0, flags, 0, n);
+        System.arraycopy(other.variant, 0, variant, 0, n);
+        System.arraycopy(other.sprite, 0, sprite, 0, n);
+        System.arraycopy(other.mask, 0, mask, 0, n);
+        System.arraycopy(other.x, 0, x, 0, n);
+        System.arraycopy(other.y, 0, y, 0, n);
+        System.arraycopy(other.prevX, 0, prevX, 0, n);
+        System.arraycopy(other.prevY, 0, prevY, 0, n);
+        System.arraycopy(other.originX, 0, originX, 0, n);
+        System.arraycopy(other.originY, 0, originY, 0, n);
+        System.arraycopy(other.vx, 0, vx, 0, n);
+        System.arraycopy(other.health, 0, health, 0, n);
+        System.arraycopy(other.scoreValue, 0, scoreValue, 0, n);
+        System.arraycopy(other.fireChance, 0, fireChance, 0, n);
+        System.arraycopy(other.randState, 0, randState, 0, n);
+        System.arraycopy(other.stage, 0, stage, 0, n);
+        System.arraycopy(other.path, 0, path, 0, n);
+        System.arraycopy(other.pathIndex, 0, pathIndex, 0, n);
+        System.arraycopy(other.pathStep, 0, pathStep, 0, n);
+        System.arraycopy(other.mirror, 0, mirror, 0, n);
+        System.arraycopy(other.diveDepth, 0, diveDepth, 0, n);
+        System.arraycopy(other.lastAction, 0, lastAction, 0, n);
+        System.arraycopy(other.fireStart, 0, fireStart, 0, n);
+        count = n;
+    }
+
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeByte(type[i].id);
+            out.writeByte(variant[i]);
+            out.writeInt(x[i]);
+            out.writeInt(y[i]);
+            out.writeInt(prevX[i]);
+            out.writeInt(prevY[i]);
+            out.writeInt(originX[i]);
+            out.writeInt(originY[i]);
+            out.writeByte(vx[i]);
+            out.writeByte(health[i]);
+            out.writeLong(randState[i]);
+            out.writeByte(stage[i]);
+            out.writeByte(pathId(path[i]));
+            out.writeShort(pathIndex[i]);
+            out.writeByte(pathStep[i]);
+            out.writeByte(mirror[i]);
+            out.writeInt(diveDepth[i]);
+            out.writeLong(lastAction[i]);
+            out.writeLong(fireStart[i]);
+        }
+    }
+
+    public void readState(DataInput in) throws IOException {
+        clear();
+        int size = in.readInt();
+        for (int k = 0; k < size; k++) {
+            int id = in.readByte();
+            if (id < 0 || id >= EnemyFactory.ARCHETYPES.length) throw new IOException("Unknown enemy type " + id);
+            EnemyArchetype archetype = EnemyFactory.ARCHETYPES[id];
+            int variant = in.readByte();
+            if (variant < 0 || variant >= archetype.variants()) {
+                throw new IOException("Unknown variant " + variant + " of " + archetype.getName());
+            }
+            int i = add(archetype, 0, 0, variant, 0);
+            x[i] = in.readInt();
+            y[i] = in.readInt();
+            prevX[i] = in.readInt();
+            prevY[i] = in.readInt();
+            originX[i] = in.readInt();
+            originY[i] = in.readInt();
+            vx[i] = in.readByte();
+            health[i] = in.readByte();
+            randState[i] = in.readLong();
+            stage[i] = in.readByte();
+            if (!isStage(stage[i])) throw new IOException("Unknown stage " + stage[i]);
+            int pathId = in.readUnsignedByte();
+            pathIndex[i] = in.readShort();
+            pathStep[i] = in.readByte();
+            mirror[i] = in.readByte();
+            diveDepth[i] = in.readInt();
+            path[i] = path(pathId, diveDepth[i]);
+            if (path[i] == null ? pathStep[i] != 0 : pathIndex[i] < 0 || pathIndex[i] >= path[i].length()) {
+                throw new IOException("Bad position " + pathIndex[i] + " along the path of enemy " + k);
+            }
+            lastAction[i] = in.readLong();
+            fireStart[i] = in.readLong();
+        }
+    }
+
+    // Whether a value read from outside names one of the dive stages
+    static boolean isStage(long stage) {
+        return stage >= IDLE && stage <= RETURNING;
+    }
+
+    // 0 for none, 1 for the swoop, 2 for a capture dive, then 3 on for entry paths
+    private int pathId(AttackPath path) {
+        if (path == null) return 0;
+        if (path == AttackPath.SWOOP) return 1;
+        int entry = entryPaths.indexOf(path);
+        return entry >= 0 ? 3 + entry : 2;
+    }
+
+    private AttackPath path(int id, int diveDepth) throws IOException {
+        if (id == 0) return null;
+        if (id == 1) return AttackPath.SWOOP;
+        if (id == 2) return AttackPath.captureDive(diveDepth);
+        if (id - 3 >= entryPaths.size()) throw new IOException("Unknown entry path " + (id - 3));
+        return entryPaths.get(id - 3);
+    }
+
+    // Copies every component of enemy from into slot to
+    private void move(int from, int to) {
+        type[to] = type[from];
+        flags[to] = flags[from];
+        variant[to] = variant[from];
+        sprite[to] = sprite[from];
+        mask[to] = mask[from];
+        x[to] = x[from];
+        y[to] = y[from];
+        prevX[to] = prevX[from];
+        prevY[to] = prevY[from];
+        originX[to] = originX[from];
+        originY[to] = originY[from];
+        vx[to] = vx[from];
+        health[to] = health[from];
+        scoreValue[to] = scoreValue[from];
+        fireChance[to] = fireChance[from];
+        randState[to] = randState[from];
+        stage[to] = stage[from];
+        path[to] = path[from];
+        pathIndex[to] = pathIndex[from];
+        pathStep[to] = pathStep[from];
+        mirror[to] = mirror[from];
+        diveDepth[to] = diveDepth[from];
+        lastAction[to] = lastAction[from];
+        fireStart[to] = fireStart[from];
+    }
+
+    // Creates or grows every component array to the given capacity
+    private void allocate(int capacity) {
+        type = type == null ? new EnemyArchetype[capacity] : Arrays.copyOf(type, capacity);
+        flags = grow(flags, capacity);
+        variant = grow(variant, capacity);
+        sprite = sprite == null ? new Image[capacity] : Arrays.copyOf(sprite, capacity);
+        mask = mask == null ? new CollisionMask[capacity] : Arrays.copyOf(mask, capacity);
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        prevX = grow(prevX, capacity);
+        prevY = grow(prevY, capacity);
+        originX = grow(originX, capacity);
+        originY = grow(originY, capacity);
+        vx = grow(vx, capacity);
+        health = grow(health, capacity);
+        scoreValue = grow(scoreValue, capacity);
+        fireChance = grow(fireChance, capacity);
+        randState = randState == null ? new long[capacity] : Arrays.copyOf(randState, capacity);
+        stage = grow(stage, capacity);
+        path = path == null ? new AttackPath[capacity] : Arrays.copyOf(path, capacity);
+        pathIndex = grow(pathIndex, capacity);
+        pathStep = grow(pathStep, capacity);
+        mirror = grow(mirror, capacity);
+        diveDepth = grow(diveDepth, capacity);
+        lastAction = lastAction == null ? new long[capacity] : Arrays.copyOf(lastAction, capacity);
+        fireStart = fireStart == null ? new long[capacity] : Arrays.copyOf(fireStart, capacity);
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        return array == null ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
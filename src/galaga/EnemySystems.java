@@ -0,0 +1,197 @@
+package galaga;
+
+/**
+ * The enemy behaviors, each a pass over a range of an EnemyStore that reads and writes
+ * only the components it needs. An enemy takes part in a pass when its archetype set the
+ * matching component: a patrol speed, a fire chance, the capture flag or a dive path.
+ * Each pass touches only the given range and an enemy's own random stream, so disjoint
+ * ranges can run on different threads.
+ */
+public class EnemySystems {
+    private static final int PATROL_MIN_X = 0, PATROL_MAX_X = 750; // Patrols turn around here
+    private static final int BEAM_DURATION = 2000; // Milliseconds the beam stays on
+    private static final int BEAM_HEIGHT = 80;     // From the top of the sprite to the tip of the beam
+
+    /**
+     * Advances enemies from up to but not including to by one tick.
+     * @param now Game time in milliseconds
+     * @param hero Aimed at by capture dives; only read
+     * @param shots Store new enemy bullets go to
+     */
+    public static void update(EnemyStore enemies, int from, int to, long now, Hero hero, ProjectileStore shots) {
+        patrol(enemies, from, to);
+        fire(enemies, from, to, shots);
+        startCaptureDives(enemies, from, to, now, hero);
+        followPaths(enemies, from, to, now);
+        endBeams(enemies, from, to, now);
+    }
+
+    // Side to side movement, turning at the edges of the board. Enemies flying a path are
+    // placed by it instead.
+    static void patrol(EnemyStore enemies, int from, int to) {
+        int[] x = enemies.x, vx = enemies.vx, pathStep = enemies.pathStep;
+        for (int i = from; i < to; i++) {
+            if (vx[i] == 0 || pathStep[i] != 0) continue;
+            x[i] += vx[i];
+            if (x[i] <= PATROL_MIN_X || x[i] >= PATROL_MAX_X) vx[i] = -vx[i];
+        }
+    }
+
+    // Random shots straight down, each enemy drawing from its own stream
+    static void fire(EnemyStore enemies, int from, int to, ProjectileStore shots) {
+        int[] chance = enemies.fireChance;
+        long[] state = enemies.randState;
+        for (int i = from; i < to; i++) {
+            if (chance[i] == 0) continue;
+            state[i] = GameRandom.advance(state[i]);
+            if (GameRandom.bounded(GameRandom.mix(state[i]), 100) < chance[i]) {
+                shots.add(enemies.x[i] + 20, enemies.y[i] + 20, EnemyBullet.SPEED);
+            }
+        }
+    }
+
+    // Capturing enemies dive toward the hero every captureDelay while in formation
+    static void startCaptureDives(EnemyStore enemies, int from, int to, long now, Hero hero) {
+        int delay = enemies.captureDelay;
+        for (int i = from; i < to; i++) {
+            if ((enemies.flags[i] & EnemyStore.CAPTURES) == 0) continue;
+            if (enemies.lastAction[i] == Long.MIN_VALUE) enemies.lastAction[i] = now; // First update
+
+            if (now - enemies.lastAction[i] >= delay && enemies.stage[i] == EnemyStore.IDLE) {
+                int depth = captureDepth(hero, enemies.originY[i]);
+                enemies.diveDepth[i] = depth;
+                startPath(enemies, i, AttackPath.captureDive(depth), 1);
+                enemies.lastAction[i] = now;
+            }
+        }
+    }
+
+    /**
+     * Compiles the capture dive of every capturing slot in the plan, so that no dive in
+     * play compiles its path inside the tick.
+     * @param hero The hero the dives will aim at
+     */
+    static void compileCaptureDives(WavePlan plan, Hero hero) {
+        for (int w = 1; w <= plan.size(); w++) {
+            for (WavePlan.Spawn spawn : plan.wave(w).spawns()) {
+                if (spawn.type().captures) AttackPath.captureDive(captureDepth(hero, spawn.y()));
+            }
+        }
+    }
+
+    // The dive stops with the beam's tip level with the bottom of the hero
+    private static int captureDepth(Hero hero, int originY) {
+        return hero.getY() + hero.getHeight() - BEAM_HEIGHT - originY;
+    }
+
+    /**
+     * Starts a swoop dive toward the side of the board the hero is on.
+     */
+    public static void startSwoop(EnemyStore enemies, int i, Hero hero) {
+        int mirror = hero.x + hero.getHitWidth() / 2 < enemies.x[i] + EnemyStore.SIZE / 2 ? -1 : 1;
+        startPath(enemies, i, AttackPath.SWOOP, mirror);
+    }
+
+    /**
+     * Puts a new enemy at the far end of an entry path, to fly it back to its slot.
+     * @param path Entry path ending at the enemy's slot, compiled in reverse as WavePlan does
+     */
+    public static void startEntry(EnemyStore enemies, int i, AttackPath path, int mirror) {
+        int last = path.length() - 1;
+        enemies.stage[i] = EnemyStore.RETURNING;
+        enemies.path[i] = path;
+        enemies.pathIndex[i] = last;
+        enemies.pathStep[i] = -1;
+        enemies.mirror[i] = mirror;
+        enemies.x[i] = enemies.prevX[i] = enemies.originX[i] + mirror * path.dx(last);
+        enemies.y[i] = enemies.prevY[i] = enemies.originY[i] + path.dy(last);
+    }
+
+    private static void startPath(EnemyStore enemies, int i, AttackPath path, int mirror) {
+        enemies.stage[i] = EnemyStore.DIVING;
+        enemies.path[i] = path;
+        enemies.pathIndex[i] = 0;
+        enemies.pathStep[i] = 1;
+        enemies.mirror[i] = mirror;
+    }
+
+    // One point along the path per tick. A dive that ends in a capture stops at its last
+    // point and turns the beam on; any other lands back in formation.
+    static void followPaths(EnemyStore enemies, int from, int to, long now) {
+        int[] x = enemies.x, y = enemies.y, stage = enemies.stage;
+        int[] pathIndex = enemies.pathIndex, pathStep = enemies.pathStep;
+        for (int i = from; i < to; i++) {
+            int step = pathStep[i];
+            if (step == 0) continue;
+            AttackPath path = enemies.path[i];
+            int index = pathIndex[i] + step;
+            int last = path.length() - 1;
+
+            if (index >= last && step > 0 && (enemies.flags[i] & EnemyStore.CAPTURES) != 0) {
+                index = last;
+                stage[i] = EnemyStore.FIRING;
+                pathStep[i] = 0;
+                enemies.fireStart[i] = now;
+            } else if (index > last || index <= 0) {
+                index = 0; // Both ends of a path are the formation position
+                stage[i] = EnemyStore.IDLE;
+                pathStep[i] = 0;
+                enemies.path[i] = null;
+            }
+
+            pathIndex[i] = index;
+            x[i] = enemies.originX[i] + enemies.mirror[i] * path.dx(index);
+            y[i] = enemies.originY[i] + path.dy(index);
+        }
+    }
+
+    // Turns the beam off after BEAM_DURATION and flies the dive back in reverse
+    static void endBeams(EnemyStore enemies, int from, int to, long now) {
+        for (int i = from; i < to; i++) {
+            if (enemies.stage[i] == EnemyStore.FIRING && now - enemies.fireStart[i] > BEAM_DURATION) {
+                enemies.stage[i] = EnemyStore.RETURNING;
+                enemies.pathStep[i] = -1;
+            }
+        }
+    }
+
+    /**
+     * @return true if the enemy is in formation and can be sent on a swoop
+     */
+    public static boolean canSwoop(EnemyStore enemies, int i) {
+        return (enemies.flags[i] & EnemyStore.SWOOPS) != 0 && enemies.stage[i] == EnemyStore.IDLE;
+    }
+
+    /**
+     * @return true if any capturing enemy is away from its formation position
+     */
+    public static boolean anyCapturing(EnemyStore enemies) {
+        for (int i = 0; i < enemies.count; i++) {
+            if ((enemies.flags[i] & EnemyStore.CAPTURES) != 0 && enemies.stage[i] != EnemyStore.IDLE) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the enemy's beam is on and covers a solid pixel of the hero
+     */
+    public static boolean beamHitsHero(EnemyStore enemies, int i, Hero hero) {
+        if (enemies.stage[i] != EnemyStore.FIRING) return false;
+
+        // Beam is the triangle drawn by EnemyStore.draw, from the sprite's middle down to BEAM_HEIGHT
+        int apexX = enemies.x[i] + 20, apexY = enemies.y[i] + 40;
+        return Collision.overlapsBeam(apexX, apexY, 20, BEAM_HEIGHT - 40,
+                hero.x, hero.y, hero.getHitWidth(), hero.getHitHeight())
+                && hero.mask.overlapsBeam(hero.x, hero.y, apexX, apexY, 20, BEAM_HEIGHT - 40);
+    }
+
+    /**
+     * @return true if the enemy costs the hero a life by touching it
+     */
+    public static boolean ramsHero(EnemyStore enemies, int i, Hero hero) {
+        return (enemies.flags[i] & EnemyStore.RAMS) != 0
+                && Collision.overlaps(enemies.x[i], enemies.y[i], EnemyStore.SIZE, EnemyStore.SIZE,
+                        hero.x, hero.y, hero.getHitWidth(), hero.getHitHeight())
+                && hero.mask.overlaps(hero.x, hero.y, enemies.mask[i], enemies.x[i], enemies.y[i]);
+    }
+}
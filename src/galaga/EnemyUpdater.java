@@ -0,0 +1,79 @@
+package galaga;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the EnemySystems over every enemy for one tick. Small waves update serially on the
+ * calling thread. From the threshold on, the store is cut into contiguous slices
+ * that update on the common ForkJoin pool. Each slice fires into its own bullet buffer,
+ * and the buffers are appended to the world's store in slice order, so the bullets end
+ * up exactly where a serial pass would put them.
+ */
+public class EnemyUpdater {
+    // Below this many enemies the fork and join cost more than the updates themselves.
+    // Override with -Dgalaga.parallelThreshold; 0 always splits, a huge value never does.
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+    private static final int MIN_SLICE = 1024; // Enemies per slice, enough to outweigh a steal
+
+    private final int threshold = Integer.getInteger("galaga.parallelThreshold", DEFAULT_PARALLEL_THRESHOLD);
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    private final Slice[] slices; // Reused every tick so the parallel path allocates nothing
+
+    public EnemyUpdater() {
+        // A few slices per worker evens out slices that happen to hold costlier enemies
+        slices = new Slice[Math.max(1, pool.getParallelism() * 4)];
+        for (int i = 0; i < slices.length; i++) slices[i] = new Slice();
+    }
+
+    /**
+     * Updates every enemy once.
+     * @param now Game time in milliseconds
+     * @param hero Read by enemies that aim at the hero
+     * @param enemyBullets Store that receives every shot fired this tick
+     */
+    public void update(EnemyStore enemies, long now, Hero hero, ProjectileStore enemyBullets) {
+        int count = enemies.size();
+        int sliceCount = Math.min(slices.length, count / MIN_SLICE);
+        if (count < threshold || sliceCount < 2 || Runtime.getRuntime().availableProcessors() < 2) {
+            EnemySystems.update(enemies, 0, count, now, hero, enemyBullets);
+            return;
+        }
+
+        for (int s = 0; s < sliceCount; s++) {
+            Slice slice = slices[s];
+            slice.reinitialize();
+            slice.enemies = enemies;
+            slice.hero = hero;
+            slice.now = now;
+            slice.from = (int) ((long) count * s / sliceCount);
+            slice.to = (int) ((long) count * (s + 1) / sliceCount);
+            slice.shots.clear();
+        }
+        for (int s = 1; s < sliceCount; s++) pool.execute(slices[s]);
+        slices[0].invoke(); // The calling thread works on the first slice meanwhile
+        for (int s = 1; s < sliceCount; s++) slices[s].join();
+
+        for (int s = 0; s < sliceCount; s++) {
+            enemyBullets.addAll(slices[s].shots);
+            slices[s].enemies = null; // Don't keep the world alive between ticks
+            slices[s].hero = null;
+        }
+    }
+
+    // A contiguous run of enemies updated by one worker
+    private static class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        EnemyStore enemies;
+        Hero hero;
+        long now;
+        int from, to;
+        final ProjectileStore shots = EnemyBullet.createStore();
+
+        @Override
+        protected void compute() {
+            EnemySystems.update(enemies, from, to, now, hero, shots);
+        }
+    }
+}
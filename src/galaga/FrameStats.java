@@ -0,0 +1,194 @@
+package galaga;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ring-buffered frame timing recorder. Ticks on the simulation thread add their update
+ * and collision time to the frame in progress, and each frame presented on the Swing
+ * thread closes it with its render time, tick-to-present latency, entity counts,
+ * allocation and GC time. Samples live in preallocated primitive arrays and a frame is
+ * published by advancing an atomic counter, so recording takes no locks and allocates
+ * nothing.
+ */
+public class FrameStats {
+    public static final int CAPACITY = 1024; // Frames kept; a power of two
+    private static final int MASK = CAPACITY - 1;
+
+    // One slot per frame
+    final int[] ticks = new int[CAPACITY];
+    final long[] updateNanos = new long[CAPACITY];
+    final long[] collisionNanos = new long[CAPACITY];
+    final long[] renderNanos = new long[CAPACITY];
+    final long[] latencyNanos = new long[CAPACITY];
+    final int[] swooping = new int[CAPACITY];
+    final int[] shooting = new int[CAPACITY];
+    final int[] capturing = new int[CAPACITY];
+    final int[] lasers = new int[CAPACITY];
+    final int[] bullets = new int[CAPACITY];
+    final long[] allocatedBytes = new long[CAPACITY];
+    final long[] gcMillis = new long[CAPACITY];
+    final long[] timestamps = new long[CAPACITY]; // nanoTime at the end of the frame
+
+    private final AtomicLong published = new AtomicLong(); // Frames completed so far
+
+    // Tick totals of the frame in progress, added by the simulation thread
+    private final LongAdder pendingTicks = new LongAdder();
+    private final LongAdder pendingUpdate = new LongAdder();
+    private final LongAdder pendingCollision = new LongAdder();
+    private final LongAdder pendingAllocated = new LongAdder();
+    private long lastTickAllocated = -1; // Simulation thread only
+
+    // Touched only by the frame thread
+    private long lastAllocated = -1;
+    private long lastGcMillis = -1;
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    public FrameStats() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            threads = bean;
+        } else {
+            threads = null;
+        }
+    }
+
+    /**
+     * Adds one tick to the frame in progress.
+     * @param update Time spent in the tick outside collision detection
+     * @param collision Time spent in collision detection
+     */
+    public void tickMeasured(long update, long collision) {
+        pendingTicks.increment();
+        pendingUpdate.add(update);
+        pendingCollision.add(collision);
+
+        long allocated = threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        if (lastTickAllocated >= 0) pendingAllocated.add(allocated - lastTickAllocated);
+        lastTickAllocated = allocated;
+    }
+
+    /**
+     * Closes the frame in progress and publishes it.
+     * @param render Time spent drawing the frame
+     * @param latency Time from the end of the last tick to the frame being presented
+     * @param snapshot Snapshot the frame showed, for entity counts
+     */
+    public void frameMeasured(long render, long latency, WorldSnapshot snapshot) {
+        long frame = published.get();
+        int slot = (int) (frame & MASK);
+
+        ticks[slot] = (int) pendingTicks.sumThenReset();
+        updateNanos[slot] = pendingUpdate.sumThenReset();
+        collisionNanos[slot] = pendingCollision.sumThenReset();
+        renderNanos[slot] = render;
+        latencyNanos[slot] = latency;
+
+        int swoop = 0, shoot = 0, capture = 0;
+        EnemyStore enemies = snapshot.enemies;
+        for (int i = 0; i < enemies.size(); i++) {
+            EnemyArchetype type = enemies.getType(i);
+            if (type == EnemyFactory.SWOOPING) swoop++;
+            else if (type == EnemyFactory.SHOOTING) shoot++;
+            else if (type == EnemyFactory.CAPTURING) capture++;
+        }
+        swooping[slot] = swoop;
+        shooting[slot] = shoot;
+        capturing[slot] = capture;
+        lasers[slot] = snapshot.lasers.size();
+        bullets[slot] = snapshot.enemyBullets.size();
+
+        // Both threads' allocation: the ticks' since the last frame and this thread's own
+        long allocated = threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        allocatedBytes[slot] = (lastAllocated < 0 ? 0 : allocated - lastAllocated) + pendingAllocated.sumThenReset();
+        lastAllocated = allocated;
+
+        long gc = 0;
+        for (int i = 0; i < collectors.size(); i++) gc += Math.max(0, collectors.get(i).getCollectionTime());
+        gcMillis[slot] = lastGcMillis < 0 ? 0 : gc - lastGcMillis;
+        lastGcMillis = gc;
+
+        timestamps[slot] = System.nanoTime();
+        published.lazySet(frame + 1); // Publishes the slot written above
+    }
+
+    /**
+     * @return Number of frames recorded so far; the newest is frames() - 1
+     */
+    public long frames() {
+        return published.get();
+    }
+
+    /**
+     * @return Ring slot holding the given frame, valid while it is among the last CAPACITY frames
+     */
+    public int slot(long frame) {
+        return (int) (frame & MASK);
+    }
+
+    /**
+     * Writes the buffered frames as CSV, oldest first.
+     */
+    public void exportCsv(Path file) throws IOException {
+        long end = frames();
+        long start = Math.max(0, end - CAPACITY);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("frame,timestamp_ns,ticks,update_ns,collision_ns,render_ns,latency_ns,"
+                    + "swooping,shooting,capturing,lasers,bullets,allocated_bytes,gc_ms");
+            for (long f = start; f < end; f++) {
+                int s = slot(f);
+                out.println(f + "," + timestamps[s] + "," + ticks[s] + "," + updateNanos[s] + ","
+                        + collisionNanos[s] + "," + renderNanos[s] + "," + latencyNanos[s] + ","
+                        + swooping[s] + "," + shooting[s] + "," + capturing[s] + "," + lasers[s] + ","
+                        + bullets[s] + "," + allocatedBytes[s] + "," + gcMillis[s]);
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered frames as a JSON array of objects, oldest first.
+     */
+    public void exportJson(Path file) throws IOException {
+        long end = frames();
+        long start = Math.max(0, end - CAPACITY);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("[");
+            for (long f = start; f < end; f++) {
+                int s = slot(f);
+                out.print("  {\"frame\": " + f + ", \"timestampNs\": " + timestamps[s] + ", \"ticks\": " + ticks[s]
+                        + ", \"updateNs\": " + updateNanos[s] + ", \"collisionNs\": " + collisionNanos[s]
+                        + ", \"renderNs\": " + renderNanos[s] + ", \"latencyNs\": " + latencyNanos[s]
+                        + ", \"swooping\": " + swooping[s] + ", \"shooting\": " + shooting[s]
+                        + ", \"capturing\": " + capturing[s] + ", \"lasers\": " + lasers[s]
+                        + ", \"bullets\": " + bullets[s] + ", \"allocatedBytes\": " + allocatedBytes[s]
+                        + ", \"gcMs\": " + gcMillis[s] + "}");
+                out.println(f + 1 < end ? "," : "");
+            }
+            out.println("]");
+        }
+    }
+
+    /**
+     * Exports both formats to prefix.csv and prefix.json when the JVM exits.
+     * @param prefix Path prefix for the two files
+     */
+    public void exportOnExit(String prefix) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                exportCsv(Path.of(prefix + ".csv"));
+                exportJson(Path.of(prefix + ".json"));
+            } catch (IOException e) {
+                System.err.println("Could not export frame stats: " + e.getMessage());
+            }
+        }, "frame-stats-export"));
+    }
+}
@@ -0,0 +1,124 @@
+package galaga;
+
+import java.awt.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-timestep game loop on its own simulation thread. Ticks run at a constant rate
+ * driven by a System.nanoTime accumulator, and at the display refresh rate the listener
+ * is asked to publish a frame with an interpolation factor between the last two ticks.
+ * Painting happens on the Swing thread from whatever was published last, so a slow
+ * paint does not delay the next tick.
+ */
+public class GameLoop implements Runnable {
+
+    /**
+     * Callbacks driven by the loop. Both are invoked on the loop thread, never on the
+     * Swing event thread.
+     */
+    public interface Listener {
+        void tick();
+
+        /**
+         * Publishes the state after this frame's ticks for painting.
+         */
+        void render(double alpha);
+    }
+
+    public static final int DEFAULT_TICK_RATE = 50;   // Same pace as the old 20 ms Swing Timer
+    private static final int MAX_TICKS_PER_FRAME = 5; // Catch-up cap so a long stall can't spiral
+
+    private final Listener listener;
+    private final long tickNanos;
+    private final long frameNanos;
+    private volatile boolean running = false;
+    private volatile Thread thread;
+    private long accumulator; // Only touched by the loop thread
+
+    /**
+     * Creates a loop ticking at the configured rate (system property galaga.tickRate)
+     * and rendering at the screen refresh rate.
+     * @param listener Game receiving ticks and render calls
+     */
+    public GameLoop(Listener listener) {
+        this(listener, Integer.getInteger("galaga.tickRate", DEFAULT_TICK_RATE), displayRate());
+    }
+
+    /**
+     * Creates a loop with explicit tick and frame rates.
+     * @param listener Game receiving ticks and render calls
+     * @param tickRate Simulation ticks per second
+     * @param frameRate Rendered frames per second
+     */
+    public GameLoop(Listener listener, int tickRate, int frameRate) {
+        this.listener = listener;
+        this.tickNanos = 1_000_000_000L / tickRate;
+        this.frameNanos = 1_000_000_000L / frameRate;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        accumulator = 0;
+        thread = new Thread(this, "game-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Stops the loop and waits for the frame in progress to finish, after which the
+     * listener's state can be read from the calling thread.
+     */
+    public void stopAndWait() throws InterruptedException {
+        running = false;
+        Thread current = thread;
+        if (current != null && current != Thread.currentThread()) current.join();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        while (running) {
+            long frameStart = System.nanoTime();
+            accumulator += frameStart - previous;
+            previous = frameStart;
+
+            int ticks = (int) Math.min(accumulator / tickNanos, MAX_TICKS_PER_FRAME);
+            accumulator -= ticks * tickNanos;
+            if (accumulator >= tickNanos) {
+                // We fell too far behind; drop the backlog instead of speeding up the game
+                accumulator %= tickNanos;
+            }
+
+            for (int i = 0; i < ticks && running; i++) {
+                listener.tick();
+            }
+            if (running) listener.render((double) accumulator / tickNanos);
+
+            long remaining = frameNanos - (System.nanoTime() - frameStart);
+            if (remaining > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+
+    // Refresh rate of the default screen, 60 Hz when unknown or headless
+    private static int displayRate() {
+        if (GraphicsEnvironment.isHeadless()) return 60;
+        int rate = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+        return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? 60 : rate;
+    }
+}
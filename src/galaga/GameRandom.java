@@ -0,0 +1,65 @@
+package galaga;
+
+/**
+ * Small seeded random number generator (SplitMix64) whose whole state is one long, so a
+ * world can save and restore it exactly. Every random decision in the game draws from
+ * the world's instance, which makes a run reproducible from its seed and inputs.
+ */
+public class GameRandom {
+    private long state;
+
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    public long nextLong() {
+        return mix(state = advance(state));
+    }
+
+    /**
+     * @param bound Exclusive upper bound, must be positive
+     * @return A value from 0 up to but not including bound
+     */
+    public int nextInt(int bound) {
+        return bounded(nextLong(), bound);
+    }
+
+    /**
+     * Steps a bare generator state, for streams kept in a long[] component array instead
+     * of a GameRandom object. mix(advance(s)) is the value nextLong() would return.
+     */
+    public static long advance(long state) {
+        return state + 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * @return The output for an advanced state
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return A value from 0 up to but not including bound, taken from an output of mix()
+     */
+    public static int bounded(long value, int bound) {
+        return (int) (((value >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * @return A value from origin up to but not including bound
+     */
+    public int nextInt(int origin, int bound) {
+        return origin + nextInt(bound - origin);
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+}
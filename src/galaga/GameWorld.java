@@ -0,0 +1,517 @@
+package galaga;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All game state and rules, independent of Swing. The world advances one fixed tick at
+ * a time from an input bitmask and keeps its own clock, so it can be stepped as fast as
+ * the CPU allows with scripted input, or in real time by a view such as PlayGame.
+ * All randomness comes from one seeded GameRandom, so a seed plus the per-tick inputs
+ * reproduce a game exactly.
+ */
+public class GameWorld {
+    public static final int BOARD_WIDTH = 800;
+    public static final int BOARD_HEIGHT = 600;
+
+    // Input bits for tick()
+    public static final int INPUT_LEFT = 1;
+    public static final int INPUT_RIGHT = 2;
+    public static final int INPUT_FIRE = 4;
+    public static final int PARTNER_SHIFT = 3; // The second player's INPUT_ bits sit this far up
+
+    public static final int STATE_VERSION = 6; // Changes with every change to writeState's layout
+
+    public static final int MAX_PARTICLES = 65_536; // Explosion sparks alive at once; more are dropped
+
+    // Ways to lose a life, for getLivesLost()
+    public static final int HIT_BEAM = 0, HIT_RAM = 1, HIT_BULLET = 2;
+
+    private static final int LASER_BUFFER = 150; // Milliseconds between shots
+    private static final int LASER_POS = 23;     // Laser offset from the hero's left edge
+    private static final int PARTNER_X = 475;    // Where the second player's ship starts
+
+    private final long tickNanos;
+    private long timeNanos = 0; // Game time, advanced by one tick per tick()
+    private long ticks = 0;
+    private long collisionNanos = 0; // Time checkCollisions took in the latest tick
+
+    private Hero hero;
+    private Hero partner; // Second player's ship in networked games, null when playing alone
+    private EnemyStore enemies = new EnemyStore(64);
+    private ProjectileStore lasers = Laser.createStore();
+    private ProjectileStore enemyBullets = EnemyBullet.createStore();
+    private int[] eligibleSwoopers = new int[64]; // Indices, reused every tick
+    private SpatialGrid enemyGrid = new SpatialGrid(BOARD_WIDTH, BOARD_HEIGHT, 64);
+    private EnemyUpdater enemyUpdater = new EnemyUpdater();
+    private final long seed;
+    private final Balance balance;
+    private GameRandom rand;
+
+    private int lives = 3;
+    private boolean gameOver = false;
+    private int score = 0;
+    private int wave = 1;
+    private long waveStart = 0; // Game time the current wave began, which its spawn times count from
+    private int nextSpawn = 0;  // Index of the current wave's next spawn
+    private long lastSwoopTime = 0;
+    private long lastShotTime = Long.MIN_VALUE / 2; // First shot is never on cooldown
+    private long partnerShotTime = Long.MIN_VALUE / 2;
+    private String message = "";
+    private long messageTimer = 0;
+    private final ParticleStore particles = new ParticleStore(MAX_PARTICLES);
+    private final GameRandom effectRand; // Particles only, so effects never change the game
+    private final int[] livesLost = new int[3]; // By HIT_ cause; statistics only, not part of the saved state
+
+    /**
+     * Creates a world at wave 1 with the shipped Balance.standard(), which reads the wave
+     * script the first time it is used.
+     * @param seed Seed for every random decision in the game
+     * @param tickNanos Length of one tick of game time
+     * @throws java.io.UncheckedIOException If the wave script is missing or invalid
+     */
+    public GameWorld(long seed, long tickNanos) {
+        this(seed, tickNanos, Balance.standard());
+    }
+
+    /**
+     * Creates a world at wave 1 with other difficulty settings.
+     */
+    public GameWorld(long seed, long tickNanos, Balance balance) {
+        this.seed = seed;
+        this.balance = balance;
+        enemies.captureDelay = balance.captureDelay();
+        enemies.entryPaths = balance.waves().paths();
+        this.rand = new GameRandom(seed);
+        this.effectRand = new GameRandom(~seed);
+        this.tickNanos = tickNanos;
+        hero = new Hero(375, 500);
+        EnemySystems.compileCaptureDives(balance.waves(), hero);
+        startWave(1);
+    }
+
+    /**
+     * Starts a new game: fresh hero, wave 1, full lives and no score.
+     */
+    public void reset() {
+        hero = new Hero(375, 500);
+        if (partner != null) partner = new Hero(PARTNER_X, 500);
+        enemies.clear();
+        lasers.clear();
+        enemyBullets.clear();
+        particles.clear();
+        lives = 3;
+        gameOver = false;
+        score = 0;
+        message = "";
+        Arrays.fill(livesLost, 0);
+
+        hero.setLastHitTime(now());
+        if (partner != null) partner.setLastHitTime(now());
+        startWave(1);
+    }
+
+    /**
+     * Adds or removes the second player's ship. Both players share lives and score.
+     */
+    public void setTwoPlayer(boolean twoPlayer) {
+        partner = twoPlayer ? new Hero(PARTNER_X, 500) : null;
+        partnerShotTime = Long.MIN_VALUE / 2;
+    }
+
+    /**
+     * Advances the game by one tick. Does nothing once the game is over.
+     * @param input Combination of the INPUT_ bits held or pressed for this tick, with the
+     *              second player's shifted up by PARTNER_SHIFT
+     */
+    public void tick(int input) {
+        if (gameOver) return;
+        ticks++;
+        timeNanos += tickNanos;
+        long currentTime = now();
+
+        // Indexed loops keep the tick free of iterator garbage
+        hero.savePosition();
+        if (partner != null) partner.savePosition();
+        enemies.savePositions();
+        lasers.savePositions();
+        enemyBullets.savePositions();
+        particles.savePositions();
+
+        lastShotTime = steer(hero, input, lastShotTime, currentTime);
+        if (partner != null) {
+            partnerShotTime = steer(partner, input >> PARTNER_SHIFT, partnerShotTime, currentTime);
+        }
+
+        hero.update(currentTime);
+        if (partner != null) partner.update(currentTime);
+        lasers.updateAll();
+
+        if (!EnemySystems.anyCapturing(enemies) && currentTime - lastSwoopTime > balance.swoopInterval()) {
+            if (eligibleSwoopers.length < enemies.size()) eligibleSwoopers = new int[enemies.size()];
+            int eligible = 0;
+            for (int i = 0; i < enemies.size(); i++) {
+                if (EnemySystems.canSwoop(enemies, i)) eligibleSwoopers[eligible++] = i;
+            }
+            if (eligible > 0) {
+                EnemySystems.startSwoop(enemies, eligibleSwoopers[rand.nextInt(eligible)], hero);
+                lastSwoopTime = currentTime;
+            }
+        }
+
+        if (!message.isEmpty() && currentTime - messageTimer > 2000) {
+            message = "";
+        }
+
+        enemyUpdater.update(enemies, currentTime, hero, enemyBullets);
+        enemyBullets.updateAll(); // After enemies so new shots move on the tick they are fired
+
+        long collisionStart = System.nanoTime();
+        checkCollisions();
+        collisionNanos = System.nanoTime() - collisionStart;
+
+        lasers.cull(0, BOARD_HEIGHT);
+        enemyBullets.cull(0, BOARD_HEIGHT);
+        particles.updateAll(BOARD_WIDTH, BOARD_HEIGHT);
+
+        spawnDue(currentTime);
+        if (waveCleared()) startWave(wave + 1);
+    }
+
+    // Applies one player's input bits to their ship and returns when it last fired
+    private long steer(Hero ship, int input, long lastShot, long now) {
+        ship.left = (input & INPUT_LEFT) != 0;
+        ship.right = (input & INPUT_RIGHT) != 0;
+        if ((input & INPUT_FIRE) != 0 && now - lastShot > LASER_BUFFER) {
+            lasers.add(ship.x + LASER_POS, ship.y, Laser.SPEED);
+            return now;
+        }
+        return lastShot;
+    }
+
+    // Clears the board and starts a wave's clock
+    void startWave(int number) {
+        wave = number;
+        enemies.clear();
+        waveStart = now();
+        nextSpawn = 0;
+        spawnDue(waveStart);
+    }
+
+    // Adds every enemy of the current wave whose time has come
+    void spawnDue(long now) {
+        WavePlan.Wave current = balance.waves().wave(wave);
+        List<WavePlan.Spawn> spawns = current.spawns();
+        while (nextSpawn < spawns.size() && spawns.get(nextSpawn).time() <= now - waveStart) {
+            WavePlan.Spawn spawn = spawns.get(nextSpawn++);
+            int i = EnemyFactory.createEnemy(spawn.type(), spawn.x(), spawn.y(), enemies, rand);
+            if (enemies.fireChance[i] > 0) enemies.fireChance[i] = balance.fireChance();
+            if (spawn.entry() >= 0) {
+                EnemySystems.startEntry(enemies, i, balance.waves().paths().get(spawn.entry()), spawn.mirrored() ? -1 : 1);
+            }
+        }
+    }
+
+    // Cleared once every enemy has arrived and been destroyed
+    private boolean waveCleared() {
+        return enemies.isEmpty() && nextSpawn == balance.waves().wave(wave).spawns().size();
+    }
+
+    // Gives every enemy that can shoot the balance's fire chance, which the store does not save
+    private void applyFireChance() {
+        for (int i = 0; i < enemies.size(); i++) {
+            if (enemies.fireChance[i] > 0) enemies.fireChance[i] = balance.fireChance();
+        }
+    }
+
+    void checkCollisions() {
+        long now = now();
+
+        // Rebuild the broadphase from this tick's enemy positions; ids are store indices
+        enemyGrid.clear();
+        int[] enemyX = enemies.x, enemyY = enemies.y;
+        for (int j = 0; j < enemies.size(); j++) {
+            enemyGrid.insert(j, enemyX[j], enemyY[j], EnemyStore.SIZE, EnemyStore.SIZE, enemies.mask[j]);
+        }
+        checkShip(hero, now);
+        if (partner != null) checkShip(partner, now);
+
+        // Each laser hits the first live enemy in store order. Dead enemies are compacted
+        // after the pass; a spent laser is swapped out, so the same slot is checked again.
+        int[] laserX = lasers.x, laserY = lasers.y;
+        for (int i = 0; i < lasers.size(); ) {
+            int target = enemyGrid.firstOverlap(laserX[i], laserY[i], Laser.WIDTH, Laser.HEIGHT);
+            if (target == -1) {
+                i++;
+                continue;
+            }
+
+            int hitX = laserX[i] + Laser.WIDTH / 2, hitY = laserY[i];
+            lasers.remove(i);
+            EnemyArchetype type = enemies.type[target];
+            if (--enemies.health[target] <= 0) {
+                enemyGrid.remove(target);
+                score += enemies.scoreValue[target];
+                explode(enemies.x[target] + EnemyStore.SIZE / 2, enemies.y[target] + EnemyStore.SIZE / 2,
+                        type.color(0).getRGB());
+            } else {
+                particles.burst(hitX, hitY, 8, 3, type.color(type.health - enemies.health[target]).getRGB(), 16, effectRand);
+            }
+        }
+        enemies.removeDestroyed();
+    }
+
+    // Beams, rams and bullets against one player's ship
+    private void checkShip(Hero ship, long now) {
+        int cause = -1;
+        for (int j = 0; j < enemies.size() && cause == -1; j++) {
+            if (EnemySystems.beamHitsHero(enemies, j, ship)) cause = HIT_BEAM;
+        }
+
+        int candidates = enemyGrid.query(ship.x, ship.y, ship.getHitWidth(), ship.getHitHeight());
+        for (int k = 0; k < candidates && cause == -1; k++) {
+            if (EnemySystems.ramsHero(enemies, enemyGrid.result(k), ship)) cause = HIT_RAM;
+        }
+        if (cause != -1) handleHeroHit(ship, now, cause); // Further hits in the same tick are ignored by the cooldown
+
+        // A single ship is one query against every bullet, so a linear scan is already optimal here
+        int bullet = enemyBullets.firstOverlap(ship.x, ship.y, ship.mask);
+        if (bullet != -1) {
+            enemyBullets.remove(bullet);
+            handleHeroHit(ship, now, HIT_BULLET);
+        }
+    }
+
+    private void handleHeroHit(Hero ship, long now, int cause) {
+        if (now - ship.getLastHitTime() > 1000) {
+            ship.takeHit(now);
+            lives--;
+            livesLost[cause]++;
+            explode(ship.x + ship.getHitWidth() / 2, ship.y + ship.getHitHeight() / 2, 0x66CCFF);
+            ship.setLastHitTime(now);
+            if (lives <= 0) {
+                gameOver = true;
+            }
+        }
+    }
+
+    // Sparks in the given color around a white-hot core
+    private void explode(int x, int y, int rgb) {
+        particles.burst(x, y, 40, 4, rgb, 40, effectRand);
+        particles.burst(x, y, 16, 2, 0xFFFFFF, 24, effectRand);
+    }
+
+    /**
+     * Writes the complete game state, including the random generator, so that restoring
+     * it and applying the same inputs continues the game identically.
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(timeNanos);
+        out.writeLong(ticks);
+        out.writeLong(rand.getState());
+        out.writeInt(lives);
+        out.writeBoolean(gameOver);
+        out.writeInt(score);
+        out.writeInt(wave);
+        out.writeInt(balance.waves().fingerprint());
+        out.writeLong(waveStart);
+        out.writeInt(nextSpawn);
+        out.writeLong(lastSwoopTime);
+        out.writeLong(lastShotTime);
+        out.writeUTF(message);
+        out.writeLong(messageTimer);
+        hero.writeState(out);
+        enemies.writeState(out);
+        lasers.writeState(out);
+        enemyBullets.writeState(out);
+        out.writeBoolean(partner != null);
+        if (partner != null) {
+            partner.writeState(out);
+            out.writeLong(partnerShotTime);
+        }
+    }
+
+    /**
+     * Replaces the whole game state with one written by writeState. The state is read
+     * straight into this world, so after an IOException it is part old and part new and
+     * must be thrown away; restore() never leaves a world like that.
+     */
+    public void readState(DataInput in) throws IOException {
+        timeNanos = in.readLong();
+        ticks = in.readLong();
+        rand.setState(in.readLong());
+        lives = in.readInt();
+        gameOver = in.readBoolean();
+        score = in.readInt();
+        wave = in.readInt();
+        if (in.readInt() != balance.waves().fingerprint()) throw new IOException("Played with different wave scripts");
+        waveStart = in.readLong();
+        nextSpawn = in.readInt();
+        if (nextSpawn < 0 || nextSpawn > balance.waves().wave(wave).spawns().size()) throw new IOException("Bad spawn index");
+        lastSwoopTime = in.readLong();
+        lastShotTime = in.readLong();
+        message = in.readUTF();
+        messageTimer = in.readLong();
+        hero.readState(in);
+        particles.clear(); // Not saved; sparks of the state being replaced would be out of place
+        enemies.readState(in);
+        applyFireChance();
+        lasers.readState(in);
+        enemyBullets.readState(in);
+        if (in.readBoolean()) {
+            if (partner == null) partner = new Hero(PARTNER_X, 500);
+            partner.readState(in);
+            partnerShotTime = in.readLong();
+        } else {
+            partner = null;
+        }
+    }
+
+    /**
+     * @return The current state as written by writeState
+     */
+    public byte[] snapshot() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeState(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Cannot happen for an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores a state taken with snapshot(). The state is read into a new world first and
+     * only taken over once all of it has been read, so on failure this world is unchanged.
+     * @throws IllegalArgumentException If the state is corrupt or does not fit this build
+     */
+    public void restore(byte[] state) {
+        GameWorld restored = new GameWorld(seed, tickNanos, balance);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(state))) {
+            restored.readState(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt game state: " + e.getMessage(), e);
+        }
+        adopt(restored);
+    }
+
+    // Takes over every field readState sets; scratch arrays and statistics stay this world's
+    private void adopt(GameWorld other) {
+        timeNanos = other.timeNanos;
+        ticks = other.ticks;
+        rand = other.rand;
+        lives = other.lives;
+        gameOver = other.gameOver;
+        score = other.score;
+        wave = other.wave;
+        waveStart = other.waveStart;
+        nextSpawn = other.nextSpawn;
+        lastSwoopTime = other.lastSwoopTime;
+        lastShotTime = other.lastShotTime;
+        message = other.message;
+        messageTimer = other.messageTimer;
+        hero = other.hero;
+        particles.clear(); // Not saved; sparks of the state being replaced would be out of place
+        enemies = other.enemies;
+        lasers = other.lasers;
+        enemyBullets = other.enemyBullets;
+        partner = other.partner;
+        partnerShotTime = other.partnerShotTime;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * @return Game time in milliseconds
+     */
+    public long now() {
+        return timeNanos / 1_000_000;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return Nanoseconds spent in collision detection during the latest tick
+     */
+    public long getCollisionNanos() {
+        return collisionNanos;
+    }
+
+    public Hero getHero() {
+        return hero;
+    }
+
+    /**
+     * @return The second player's ship, or null in a one-player game
+     */
+    public Hero getPartner() {
+        return partner;
+    }
+
+    public EnemyStore getEnemies() {
+        return enemies;
+    }
+
+    public ProjectileStore getLasers() {
+        return lasers;
+    }
+
+    public ProjectileStore getEnemyBullets() {
+        return enemyBullets;
+    }
+
+    /**
+     * @return Explosion and hit sparks, which are not part of the saved state
+     */
+    public ParticleStore getParticles() {
+        return particles;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getWave() {
+        return wave;
+    }
+
+    public Balance getBalance() {
+        return balance;
+    }
+
+    /**
+     * @param cause One of the HIT_ constants
+     * @return Lives lost that way since the world was created or reset
+     */
+    public int getLivesLost(int cause) {
+        return livesLost[cause];
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
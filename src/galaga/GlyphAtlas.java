@@ -0,0 +1,88 @@
+package galaga;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * The digits and minus sign of one font and color, rasterized once side by side into a
+ * single image. Numbers are drawn by copying glyphs out of it, which involves no string
+ * building, text layout or glyph rasterizing.
+ */
+public class GlyphAtlas {
+    private static final String GLYPHS = "0123456789-";
+
+    private final BufferedImage image;
+    private final int[] offset = new int[GLYPHS.length()];  // Left edge of each glyph in the image
+    private final int[] advance = new int[GLYPHS.length()]; // Pen movement after each glyph
+    private final int ascent, height;
+    private final int[] digits = new int[11]; // Scratch for drawNumber, enough for any int
+
+    public GlyphAtlas(Font font, Color color) {
+        FontMetrics metrics = Hud.metrics(font);
+        ascent = metrics.getAscent();
+        height = metrics.getAscent() + metrics.getDescent();
+        int width = 0;
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            offset[i] = width;
+            advance[i] = metrics.charWidth(GLYPHS.charAt(i));
+            width += advance[i];
+        }
+
+        image = SpriteCache.createImage(width, height);
+        Graphics2D g = image.createGraphics();
+        g.setFont(font);
+        g.setColor(color);
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            g.drawString(GLYPHS.substring(i, i + 1), offset[i], ascent);
+        }
+        g.dispose();
+    }
+
+    /**
+     * Draws a number the way drawString would draw its decimal form.
+     * @param baseline Y coordinate of the text baseline, as in drawString
+     * @return Width drawn in pixels
+     */
+    public int drawNumber(Graphics g, int value, int x, int baseline) {
+        int count = toDigits(value);
+        int top = baseline - ascent;
+        int start = x;
+        for (int i = count - 1; i >= 0; i--) {
+            int glyph = digits[i];
+            int w = advance[glyph];
+            g.drawImage(image, x, top, x + w, top + height, offset[glyph], 0, offset[glyph] + w, height, null);
+            x += w;
+        }
+        return x - start;
+    }
+
+    /**
+     * @return Width drawNumber would draw the number with
+     */
+    public int width(int value) {
+        int count = toDigits(value);
+        int width = 0;
+        for (int i = 0; i < count; i++) width += advance[digits[i]];
+        return width;
+    }
+
+    public int getAscent() {
+        return ascent;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Glyph indices into digits, least significant first; returns how many
+    private int toDigits(int value) {
+        int count = 0;
+        long v = Math.abs((long) value);
+        do {
+            digits[count++] = (int) (v % 10);
+            v /= 10;
+        } while (v != 0);
+        if (value < 0) digits[count++] = 10; // Minus sign
+        return count;
+    }
+}
@@ -0,0 +1,152 @@
+package galaga;
+
+import java.awt.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class Hero {
+    public static final int HIT_WIDTH = 50;  // Box drawn and hit when the sprite is missing
+    public static final int HIT_HEIGHT = 20;
+    static final String SPRITE = "Sprites/Player.png";
+    static final int WIDTH = 50;  // Size the sprite is drawn at
+    static final int HEIGHT = 53;
+
+    int x, y;
+    int prevX, prevY; // Position at the start of the current tick, for render interpolation
+    boolean left, right;
+    boolean hit = false;
+    long hitTimer = 0;
+    long time = 0; // Game time of the latest update, in milliseconds
+    Image image;
+    final CollisionMask mask; // Solid pixels of whatever draw() paints
+    private long lastHitTime = 0;
+
+    public Hero(int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.prevX = x;
+        this.prevY = y;
+        image = SpriteCache.get(SPRITE, WIDTH, HEIGHT); // Shared, pre-scaled sprite
+        CollisionMask spriteMask = SpriteCache.getMask(SPRITE, WIDTH, HEIGHT);
+        mask = spriteMask != null ? spriteMask : CollisionMask.solid(HIT_WIDTH, HIT_HEIGHT);
+    }
+
+    public void savePosition() {
+        prevX = x;
+        prevY = y;
+    }
+
+    public void update(long now) {
+        time = now;
+        if (left && x > 0) x -= 5;
+        if (right && x < 750) x += 5;
+    }
+
+    public void draw(Graphics g) {
+        if (image != null) {
+            g.drawImage(image, x, y, null); // Draw the loaded image
+        } else {
+            // Fallback for if image fails to load
+            if (hit && time - hitTimer < 300) {
+                g.setColor(Color.RED);
+            } else {
+                g.setColor(Color.GREEN); // or whatever normal color you want
+            }
+            g.fillRect(x, y, 50, 20);
+        }
+    }
+
+    /**
+     * Reports the area draw() paints, which is the sprite rather than the smaller hitbox.
+     * @param dx Horizontal offset the hero is drawn at, as for render interpolation
+     * @param dy Vertical offset the hero is drawn at
+     */
+    public void addDamage(DamageRegion damage, int dx, int dy) {
+        damage.add(x + dx, y + dy, WIDTH, HEIGHT);
+    }
+
+    public Rectangle getBounds() {
+        return new Rectangle(x, y, mask.width, mask.height);
+    }
+
+    public int getHitWidth() {
+        return mask.width;
+    }
+
+    public int getHitHeight() {
+        return mask.height;
+    }
+
+    /**
+     * Allocation-free version of getBounds().intersects(...), refined by the sprite's mask.
+     * @return true if the box covers a solid pixel of the hero
+     */
+    public boolean overlaps(int ox, int oy, int ow, int oh) {
+        return Collision.overlaps(x, y, mask.width, mask.height, ox, oy, ow, oh)
+                && mask.overlapsBox(x, y, ox, oy, ow, oh);
+    }
+
+    public long getLastHitTime() {
+        return lastHitTime;
+    }
+
+    public void setLastHitTime(long time) {
+        this.lastHitTime = time;
+    }
+
+    public void takeHit(long now) {
+        hit = true;
+        hitTimer = now;
+    }
+
+    /**
+     * Copies another hero's position and hit state, for drawing it elsewhere.
+     */
+    public void copyFrom(Hero other) {
+        x = other.x;
+        y = other.y;
+        prevX = other.prevX;
+        prevY = other.prevY;
+        hit = other.hit;
+        hitTimer = other.hitTimer;
+        time = other.time;
+        lastHitTime = other.lastHitTime;
+    }
+
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(x);
+        out.writeInt(y);
+        out.writeInt(prevX);
+        out.writeInt(prevY);
+        out.writeBoolean(hit);
+        out.writeLong(hitTimer);
+        out.writeLong(time);
+        out.writeLong(lastHitTime);
+    }
+
+    public void readState(DataInput in) throws IOException {
+        x = in.readInt();
+        y = in.readInt();
+        prevX = in.readInt();
+        prevY = in.readInt();
+        hit = in.readBoolean();
+        hitTimer = in.readLong();
+        time = in.readLong();
+        lastHitTime = in.readLong();
+    }
+
+    // Add these two methods to access y and height
+    public int getY() {
+        return y;
+    }
+
+    public int getHeight() {
+        if(image != null) {
+            return HEIGHT;
+        }
+        else{
+            return 20;
+        }
+    }
+}
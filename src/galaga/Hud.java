@@ -0,0 +1,172 @@
+package galaga;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws all of the game's text from cached images. Fixed strings are rendered once.
+ * Lives, wave and score are each kept as an image of label and number that is redrawn
+ * from a GlyphAtlas only when the number changes, and the message and high-score table
+ * are re-rendered only when PlayGame hands over different ones. A frame where nothing
+ * changed is a handful of image copies with no fonts, strings or glyph rasterizing.
+ */
+public class Hud {
+    private static final Color TEXT_COLOR = Color.WHITE;
+    private static final Font MENU_FONT = new Font("Arial", Font.PLAIN, 20);
+    private static final Font MESSAGE_FONT = new Font("Arial", Font.BOLD, 24);
+    private static final Font GAME_OVER_FONT = new Font("Arial", Font.BOLD, 48);
+    private static final Font PROMPT_FONT = new Font("Arial", Font.PLAIN, 28);
+    private static final Font TABLE_FONT = new Font("Arial", Font.PLAIN, 18);
+    private static final int TABLE_LINE_HEIGHT = 50;
+
+    private final Label nameLabel = new Label("Name:", MENU_FONT);
+    private final Label gameOverLabel = new Label("Game Over", GAME_OVER_FONT);
+    private final Label promptLabel = new Label("Press Enter to continue", PROMPT_FONT);
+    private final NumberField lives, wave, score;
+    private final NumberField finalScore = new NumberField("Score: ", GAME_OVER_FONT);
+
+    private String message;          // Message currently rendered into messageLabel
+    private Label messageLabel;
+    private String[] tableLines;     // Table currently rendered into tableImage
+    private String tableFooter;
+    private BufferedImage tableImage;
+    private int tableAscent;
+
+    /**
+     * @param font Font of the lives, wave and score counters
+     */
+    public Hud(Font font) {
+        lives = new NumberField("Lives: ", font);
+        wave = new NumberField("Wave: ", font);
+        score = new NumberField("Score: ", font);
+    }
+
+    /**
+     * Draws the lives, wave and score counters along the top of the board.
+     */
+    public void drawCounters(Graphics g, int lives, int wave, int score) {
+        this.lives.draw(g, lives, 10, 20);
+        this.wave.draw(g, wave, 700, 20);
+        this.score.draw(g, score, 400, 20);
+    }
+
+    public void drawNameLabel(Graphics g) {
+        nameLabel.draw(g, 250, 375);
+    }
+
+    /**
+     * Draws the wave message; an empty message draws nothing.
+     */
+    public void drawMessage(Graphics g, String message) {
+        if (message.isEmpty()) return;
+        if (!message.equals(this.message)) {
+            this.message = message;
+            messageLabel = new Label(message, MESSAGE_FONT);
+        }
+        messageLabel.draw(g, 300, 280);
+    }
+
+    /**
+     * Draws the game over screen with the final score and the high-score table.
+     * @param table High-score lines, one per row
+     * @param footer Line drawn under the table
+     */
+    public void drawGameOver(Graphics g, int score, String[] table, String footer) {
+        gameOverLabel.draw(g, 300, 300);
+        finalScore.draw(g, score, 300, 350);
+        promptLabel.draw(g, 280, 400);
+
+        // The table only changes when the leaderboard answers, so it is compared by reference
+        if (table != tableLines || !footer.equals(tableFooter)) {
+            tableLines = table;
+            tableFooter = footer;
+            renderTable();
+        }
+        if (tableImage != null) g.drawImage(tableImage, 100, 200 - tableAscent, null);
+    }
+
+    private void renderTable() {
+        FontMetrics metrics = metrics(TABLE_FONT);
+        int width = metrics.stringWidth(tableFooter);
+        for (String line : tableLines) width = Math.max(width, metrics.stringWidth(line));
+        if (width == 0) {
+            tableImage = null;
+            return;
+        }
+        tableAscent = metrics.getAscent();
+        int rows = tableLines.length + 1;
+        tableImage = SpriteCache.createImage(width, (rows - 1) * TABLE_LINE_HEIGHT + tableAscent + metrics.getDescent());
+        Graphics2D g = tableImage.createGraphics();
+        g.setFont(TABLE_FONT);
+        g.setColor(TEXT_COLOR);
+        for (int i = 0; i < tableLines.length; i++) {
+            g.drawString(tableLines[i], 0, tableAscent + i * TABLE_LINE_HEIGHT);
+        }
+        g.drawString(tableFooter, 0, tableAscent + tableLines.length * TABLE_LINE_HEIGHT);
+        g.dispose();
+    }
+
+    /**
+     * @return Metrics of a font, without needing a component
+     */
+    static FontMetrics metrics(Font font) {
+        Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        FontMetrics metrics = g.getFontMetrics(font);
+        g.dispose();
+        return metrics;
+    }
+
+    // A fixed string rendered once
+    private static class Label {
+        final BufferedImage image;
+        final int ascent;
+
+        Label(String text, Font font) {
+            FontMetrics metrics = metrics(font);
+            ascent = metrics.getAscent();
+            image = SpriteCache.createImage(Math.max(1, metrics.stringWidth(text)),
+                    metrics.getAscent() + metrics.getDescent());
+            Graphics2D g = image.createGraphics();
+            g.setFont(font);
+            g.setColor(TEXT_COLOR);
+            g.drawString(text, 0, ascent);
+            g.dispose();
+        }
+
+        // Draws with its baseline at y, like drawString
+        void draw(Graphics g, int x, int y) {
+            g.drawImage(image, x, y - ascent, null);
+        }
+    }
+
+    // A label followed by a number, redrawn into the same image only when the number changes
+    private static class NumberField {
+        final Label label;
+        final GlyphAtlas digits;
+        final BufferedImage image;
+        int value;
+        boolean rendered = false;
+
+        NumberField(String label, Font font) {
+            this.label = new Label(label, font);
+            digits = new GlyphAtlas(font, TEXT_COLOR);
+            int widest = this.label.image.getWidth() + digits.width(Integer.MIN_VALUE);
+            image = SpriteCache.createImage(widest, digits.getHeight());
+        }
+
+        void draw(Graphics g, int value, int x, int y) {
+            if (!rendered || value != this.value) {
+                this.value = value;
+                rendered = true;
+                Graphics2D ig = image.createGraphics();
+                ig.setComposite(AlphaComposite.Clear);
+                ig.fillRect(0, 0, image.getWidth(), image.getHeight());
+                ig.setComposite(AlphaComposite.SrcOver);
+                ig.drawImage(label.image, 0, 0, null);
+                digits.drawNumber(ig, value, label.image.getWidth(), digits.getAscent());
+                ig.dispose();
+            }
+            g.drawImage(image, x, y - digits.getAscent(), null);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package galaga;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands input events from the Swing event thread to the simulation thread. A fixed ring
+ * of ints with one writer and one reader: each side only advances its own counter, so
+ * neither ever waits on the other and no event allocates.
+ */
+public class InputQueue {
+    public static final int EMPTY = -1; // Returned by poll() when there is nothing queued
+    private static final int CAPACITY = 256; // A power of two; far more than a tick's worth of keys
+    private static final int MASK = CAPACITY - 1;
+
+    private final int[] events = new int[CAPACITY];
+    private final AtomicLong written = new AtomicLong(); // Advanced only by the writer
+    private final AtomicLong read = new AtomicLong();    // Advanced only by the reader
+
+    /**
+     * Queues an event. Called only from the writing thread.
+     * @param event Non-negative event code
+     * @return false if the queue was full and the event was dropped
+     */
+    public boolean offer(int event) {
+        long tail = written.get();
+        if (tail - read.get() == CAPACITY) return false;
+        events[(int) (tail & MASK)] = event;
+        written.lazySet(tail + 1); // Publishes the slot written above
+        return true;
+    }
+
+    /**
+     * Takes the oldest event. Called only from the reading thread.
+     * @return The event, or EMPTY
+     */
+    public int poll() {
+        long head = read.get();
+        if (head == written.get()) return EMPTY;
+        int event = events[(int) (head & MASK)];
+        read.lazySet(head + 1); // Frees the slot for the writer
+        return event;
+    }
+}
@@ -0,0 +1,22 @@
+package galaga;
+
+import java.awt.*;
+
+/**
+ * Shape and speed of the hero's laser shots. Live lasers are kept in a ProjectileStore.
+ */
+public class Laser {
+    public static final int WIDTH = 4;
+    public static final int HEIGHT = 10;
+    public static final int SPEED = -10; // Pixels per tick, moving up
+    public static final Color COLOR = Color.YELLOW;
+
+    private Laser() {}
+
+    /**
+     * Creates the store holding the hero's lasers.
+     */
+    public static ProjectileStore createStore() {
+        return new ProjectileStore(WIDTH, HEIGHT, COLOR, 32);
+    }
+}
@@ -0,0 +1,320 @@
+package galaga;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every finished game, kept on disk and ranked in memory. All work runs on one background
+ * thread, so callers get futures back and never wait on the disk.
+ *
+ * Storage is a sorted index file plus an append-only log of the runs since the index was
+ * written. Each run is appended as a "score\tname" line and forced to disk before it
+ * counts. A line cut short by a crash has no newline and is dropped on the next load.
+ * Once the log holds COMPACT_AFTER runs, or a quarter of the board if that is more, every
+ * run is written to a new index under a temporary name, forced and renamed over the old
+ * one. Growing the interval with the board keeps the rewriting a constant cost per run.
+ * The index records which log belongs to it, so a crash at any point leaves either the
+ * old index and log or the new ones, and never counts a run twice.
+ *
+ * Files in the directory:
+ *   leaderboard.idx            "galaga-leaderboard 1 <generation>", entries best first, "end <count>"
+ *   leaderboard-<generation>.log  runs since that index was written
+ */
+public class Leaderboard implements AutoCloseable {
+    private static final int COMPACT_AFTER = 10_000; // Log lines before they are folded into the index
+    private static final String INDEX = "leaderboard.idx";
+    private static final String HEADER = "galaga-leaderboard 1 ";
+    private static final Path LEGACY_FILE = Path.of("HighScores.txt");
+
+    /**
+     * One run on the board.
+     */
+    public record Entry(String name, int score) {}
+
+    private final Path dir;
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "leaderboard-io");
+        thread.setDaemon(true); // close() drains pending writes; a shutdown hook calls it
+        return thread;
+    });
+
+    // Touched only on the IO thread
+    private final ScoreTree scores = new ScoreTree();
+    private long generation = 0;
+    private FileChannel log;   // Null if the directory could not be opened; runs are then only kept in memory
+    private int logLines = 0;
+
+    /**
+     * Opens the board in the given directory, creating it if needed. Loading happens in the
+     * background; calls made meanwhile are answered once it finishes.
+     */
+    public Leaderboard(Path dir) {
+        this.dir = dir;
+        io.execute(this::load);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "leaderboard-close"));
+    }
+
+    /**
+     * Records a run.
+     * @return Future of the run's rank, 1 being the best
+     */
+    public CompletableFuture<Integer> submit(String name, int score) {
+        String clean = cleanName(name);
+        return CompletableFuture.supplyAsync(() -> {
+            int rank = scores.insert(clean, score);
+            append(clean, score);
+            return rank;
+        }, io);
+    }
+
+    /**
+     * @return Future of the rank a run with this score would get: 1 plus the number of better scores
+     */
+    public CompletableFuture<Integer> rankOf(int score) {
+        return CompletableFuture.supplyAsync(() -> scores.rankOf(score), io);
+    }
+
+    /**
+     * @return Future of the best entries, best first, at most count of them
+     */
+    public CompletableFuture<List<Entry>> top(int count) {
+        return CompletableFuture.supplyAsync(() -> {
+            int n = Math.min(count, scores.size());
+            List<Entry> entries = new ArrayList<>(n);
+            for (int i = 1; i <= n; i++) entries.add(new Entry(scores.nameAt(i), scores.scoreAt(i)));
+            return entries;
+        }, io);
+    }
+
+    /**
+     * @return Future of the number of runs recorded
+     */
+    public CompletableFuture<Integer> size() {
+        return CompletableFuture.supplyAsync(scores::size, io);
+    }
+
+    /**
+     * Finishes pending writes and closes the log. Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        if (io.isShutdown()) return;
+        io.execute(() -> {
+            try {
+                if (log != null) log.close();
+            } catch (IOException e) {
+                report("close", e);
+            }
+            log = null;
+        });
+        io.shutdown();
+        try {
+            io.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Names are stored on one line next to a tab, so neither may appear in them
+    private static String cleanName(String name) {
+        String clean = name == null ? "" : name.replaceAll("[\\t\\r\\n]", " ").strip();
+        return clean.isEmpty() ? "???" : clean;
+    }
+
+    private void load() {
+        try {
+            Files.createDirectories(dir);
+            Path index = dir.resolve(INDEX);
+            boolean fresh = !Files.exists(index);
+            if (!fresh) readIndex(index);
+
+            Path logFile = logFile(generation);
+            if (Files.exists(logFile)) {
+                fresh = false;
+                readLog(logFile);
+            }
+            deleteStaleLogs();
+            log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+
+            if (fresh && Files.exists(LEGACY_FILE)) {
+                importLegacy();
+                compact(); // Persist the imported runs so the old file is never read again
+            } else if (logLines >= compactAfter()) {
+                compact();
+            }
+        } catch (IOException e) {
+            report("load", e);
+        }
+    }
+
+    private void readIndex(Path index) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            String header = in.readLine();
+            if (header == null || !header.startsWith(HEADER)) throw new IOException("Not a leaderboard index: " + index);
+            generation = Long.parseLong(header.substring(HEADER.length()).trim());
+
+            int skipped = 0;
+            boolean ended = false;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("end ")) {
+                    ended = true;
+                    break;
+                }
+                if (!addLine(line)) skipped++;
+            }
+            if (!ended) System.err.println("Leaderboard index " + index + " is truncated; keeping what was read");
+            if (skipped > 0) System.err.println("Skipped " + skipped + " malformed lines in " + index);
+        } catch (NumberFormatException e) {
+            throw new IOException("Bad generation in " + index, e);
+        }
+    }
+
+    private void readLog(Path logFile) throws IOException {
+        byte[] bytes = Files.readAllBytes(logFile);
+        int complete = bytes.length;
+        while (complete > 0 && bytes[complete - 1] != '\n') complete--;
+        if (complete < bytes.length) {
+            // Torn final line from a crash mid-append: cut it off so new lines start cleanly
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                channel.truncate(complete);
+                channel.force(true);
+            }
+        }
+
+        int skipped = 0;
+        int start = 0;
+        for (int i = 0; i < complete; i++) {
+            if (bytes[i] != '\n') continue;
+            if (addLine(new String(bytes, start, i - start, StandardCharsets.UTF_8))) logLines++;
+            else skipped++;
+            start = i + 1;
+        }
+        if (skipped > 0) System.err.println("Skipped " + skipped + " malformed lines in " + logFile);
+    }
+
+    // Parses "score\tname"; false if the line is not in that form
+    private boolean addLine(String line) {
+        int tab = line.indexOf('\t');
+        if (tab <= 0 || tab == line.length() - 1) return false;
+        try {
+            scores.insert(line.substring(tab + 1), Integer.parseInt(line.substring(0, tab)));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // HighScores.txt held three lines of a 3-letter name followed by the score
+    private void importLegacy() throws IOException {
+        for (String line : Files.readAllLines(LEGACY_FILE, StandardCharsets.UTF_8)) {
+            line = line.strip();
+            if (line.length() <= 3) continue;
+            try {
+                scores.insert(cleanName(line.substring(0, 3)), Integer.parseInt(line.substring(3)));
+            } catch (NumberFormatException e) {
+                // Malformed lines were what crashed the old code; they are simply left out
+            }
+        }
+    }
+
+    private void deleteStaleLogs() throws IOException {
+        Path current = logFile(generation);
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(dir, "leaderboard-*.log")) {
+            for (Path file : logs) {
+                if (!file.equals(current)) Files.delete(file);
+            }
+        }
+    }
+
+    private void append(String name, int score) {
+        if (log == null) return;
+        try {
+            ByteBuffer line = ByteBuffer.wrap((score + "\t" + name + "\n").getBytes(StandardCharsets.UTF_8));
+            while (line.hasRemaining()) log.write(line);
+            log.force(false); // The run counts once it is on disk
+            if (++logLines >= compactAfter()) compact();
+        } catch (IOException e) {
+            report("save", e);
+        }
+    }
+
+    // Writes every run to a new index and starts an empty log for it
+    private void compact() throws IOException {
+        long next = generation + 1;
+        Path temp = dir.resolve(INDEX + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                    StandardCharsets.UTF_8), 1 << 16);
+            out.write(HEADER + next + "\n");
+            IOException[] failure = {null};
+            scores.forEach((name, score) -> {
+                if (failure[0] != null) return;
+                try {
+                    out.write(score + "\t" + name + "\n");
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) throw failure[0];
+            out.write("end " + scores.size() + "\n");
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, dir.resolve(INDEX), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(dir);
+
+        // The new index is in place, so the old log is no longer read
+        Path oldLog = logFile(generation);
+        if (log != null) log.close();
+        generation = next;
+        log = FileChannel.open(logFile(generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        logLines = 0;
+        Files.deleteIfExists(oldLog);
+    }
+
+    /**
+     * Forces a directory's entries to disk, which makes a rename into it durable. Best
+     * effort, since not every platform can open a directory for this.
+     */
+    static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+
+    private int compactAfter() {
+        return Math.max(COMPACT_AFTER, scores.size() / 4);
+    }
+
+    private Path logFile(long generation) {
+        return dir.resolve("leaderboard-" + generation + ".log");
+    }
+
+    private static void report(String action, IOException e) {
+        System.err.println("Could not " + action + " leaderboard: " + e.getMessage());
+    }
+}
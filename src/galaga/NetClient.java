@@ -0,0 +1,139 @@
+package galaga;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Joined side of a two-player game over UDP; see NetServer for the datagram layout.
+ * The client does not simulate the world: it draws the host's snapshots and only
+ * predicts its own ship, the world's partner. Every tick it replays the inputs the host
+ * has not played yet on top of the host's latest position for that ship, so movement
+ * answers the keys at once and snaps back to the host's version when they disagree.
+ */
+public class NetClient {
+    private final DatagramChannel channel;
+    private final ByteBuffer packet = ByteBuffer.allocateDirect(NetServer.MAX_PACKET);
+    private final SnapshotCodec codec = new SnapshotCodec();
+    private final WorldSnapshot[] received = new WorldSnapshot[NetServer.HISTORY]; // By sequence modulo HISTORY
+    private final WorldSnapshot empty = new WorldSnapshot(false); // Baseline of snapshots sent without one
+    private WorldSnapshot latest = empty;
+    private long latestSequence = 0;
+    private long hostInput = 0; // Newest of our inputs the host had played in latest
+
+    private final int[] inputs = new int[NetServer.INPUT_HISTORY];
+    private long inputSequence = 0; // Of the newest input sent
+    private final Hero predicted = new Hero(475, 500);
+
+    /**
+     * Opens a channel to a host. Nothing is sent until the first tick.
+     */
+    public NetClient(InetSocketAddress host) throws IOException {
+        channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.connect(host);
+        for (int i = 0; i < received.length; i++) received[i] = new WorldSnapshot(false);
+    }
+
+    /**
+     * Sends this tick's input, takes in any snapshots that arrived, and predicts the
+     * local ship from them.
+     * @param input GameWorld INPUT_ bits held or pressed for this tick
+     */
+    public void tick(int input) throws IOException {
+        inputs[(int) (++inputSequence & (NetServer.INPUT_HISTORY - 1))] = input;
+        send();
+        receive();
+        predict();
+    }
+
+    private void send() throws IOException {
+        packet.clear();
+        packet.put(NetServer.PROTOCOL);
+        SnapshotCodec.writeVarint(packet, latestSequence);
+        SnapshotCodec.writeVarint(packet, inputSequence);
+        int count = (int) Math.min(NetServer.INPUT_REDUNDANCY, inputSequence);
+        packet.put((byte) count);
+        for (int k = 0; k < count; k++) {
+            packet.put((byte) inputs[(int) ((inputSequence - k) & (NetServer.INPUT_HISTORY - 1))]);
+        }
+        packet.flip();
+        try {
+            channel.write(packet);
+        } catch (PortUnreachableException e) {
+            // The host is not up yet; sent again next tick
+        }
+    }
+
+    private void receive() throws IOException {
+        while (true) {
+            packet.clear();
+            try {
+                if (channel.read(packet) <= 0) return;
+            } catch (PortUnreachableException e) {
+                return;
+            }
+            packet.flip();
+            try {
+                readSnapshot(packet);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                // Dropped like a lost datagram; the host keeps sending
+            }
+        }
+    }
+
+    private void readSnapshot(ByteBuffer in) {
+        if (in.get() != NetServer.PROTOCOL) return;
+        long sequence = SnapshotCodec.readVarint(in);
+        long distance = SnapshotCodec.readVarint(in);
+        long played = SnapshotCodec.readVarint(in);
+        if (sequence <= latestSequence || distance >= NetServer.HISTORY) return; // Late or duplicated
+
+        WorldSnapshot baseline = empty;
+        if (distance > 0) {
+            baseline = received[(int) ((sequence - distance) % NetServer.HISTORY)];
+            if (baseline.sequence != sequence - distance) return; // No longer held
+        }
+        WorldSnapshot snapshot = received[(int) (sequence % NetServer.HISTORY)];
+        snapshot.sequence = -1; // Never a baseline unless it decodes completely
+        codec.decode(baseline, in, snapshot);
+        snapshot.sequence = sequence;
+        latest = snapshot;
+        latestSequence = sequence;
+        hostInput = played;
+    }
+
+    // The host's position for our ship, moved on by every input it has not played yet
+    private void predict() {
+        predicted.copyFrom(latest.partner);
+        long from = Math.max(hostInput, inputSequence - NetServer.INPUT_HISTORY) + 1;
+        for (long s = from; s <= inputSequence; s++) {
+            int input = inputs[(int) (s & (NetServer.INPUT_HISTORY - 1))];
+            predicted.savePosition();
+            predicted.left = (input & GameWorld.INPUT_LEFT) != 0;
+            predicted.right = (input & GameWorld.INPUT_RIGHT) != 0;
+            predicted.update(predicted.time);
+        }
+    }
+
+    /**
+     * @return The newest snapshot from the host, unchanged until the next tick
+     */
+    public WorldSnapshot latest() {
+        return latest;
+    }
+
+    /**
+     * @return The local player's ship where it will be once the host catches up
+     */
+    public Hero predicted() {
+        return predicted;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,172 @@
+package galaga;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.net.SocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Host side of a two-player game over UDP. Only the host's world simulates: every tick
+ * the joined player is sent a snapshot delta-encoded against the newest one they have
+ * acknowledged, and their input is taken from the datagrams they send back. The channel
+ * is non-blocking and polled from the simulation thread, so the network never holds up
+ * a tick.
+ *
+ * Snapshot datagram: protocol byte, then as varints the snapshot's sequence, how many
+ * sequences back its baseline is (0 for none), and the newest input sequence played;
+ * then the SnapshotCodec data.
+ * Input datagram: protocol byte, then as varints the newest snapshot sequence received
+ * and the newest input sequence, then a count byte and that many input bytes, newest
+ * first. Each input is repeated in several datagrams so a lost one costs nothing.
+ */
+public class NetServer {
+    static final byte PROTOCOL = 0x47;
+    static final int MAX_PACKET = 65_507;   // Largest UDP payload
+    static final int HISTORY = 32;          // Snapshots kept as possible baselines
+    static final int INPUT_HISTORY = 64;    // Inputs kept by sequence, a power of two
+    static final int INPUT_REDUNDANCY = 8;  // Inputs repeated in each input datagram
+    private static final int MAX_BACKLOG = 4; // Inputs queued before the server skips ahead
+
+    private final DatagramChannel channel;
+    private final ByteBuffer packet = ByteBuffer.allocateDirect(MAX_PACKET);
+    private final SnapshotCodec codec = new SnapshotCodec();
+    private final WorldSnapshot[] sent = new WorldSnapshot[HISTORY]; // By sequence modulo HISTORY
+    private final WorldSnapshot empty = new WorldSnapshot(false); // Baseline before any acknowledgement
+    private boolean joined = false; // The channel is connected to the joined player
+    private long sequence = 0;      // Of the latest snapshot sent
+    private long acked = 0;         // Newest snapshot the joined player has received
+
+    private final int[] inputs = new int[INPUT_HISTORY];
+    private final long[] inputSequence = new long[INPUT_HISTORY]; // Which input each slot holds
+    private long received = 0; // Newest input sequence heard of
+    private long applied = 0;  // Newest input sequence played
+    private int held = 0;      // Movement bits of the last input played, kept while none arrive
+    private int lastPacketSize = 0;
+
+    /**
+     * Listens for the second player on a UDP port.
+     */
+    public NetServer(int port) throws IOException {
+        channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.bind(new InetSocketAddress(port));
+        for (int i = 0; i < HISTORY; i++) sent[i] = new WorldSnapshot(false);
+    }
+
+    /**
+     * Reads every datagram that has arrived. The first sender becomes the joined player;
+     * the channel is then connected to them and ignores anyone else.
+     */
+    public void receive() throws IOException {
+        while (true) {
+            packet.clear();
+            try {
+                if (!joined) {
+                    SocketAddress from = channel.receive(packet);
+                    if (from == null) return;
+                    channel.connect(from);
+                    joined = true;
+                } else if (channel.read(packet) <= 0) {
+                    return;
+                }
+            } catch (PortUnreachableException e) {
+                return; // The other side is not listening right now; it may come back
+            }
+            packet.flip();
+            try {
+                readInput(packet);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                // Not a datagram of ours; ignored
+            }
+        }
+    }
+
+    private void readInput(ByteBuffer in) {
+        if (in.get() != PROTOCOL) return;
+        long ack = SnapshotCodec.readVarint(in);
+        long newest = SnapshotCodec.readVarint(in);
+        int count = Math.min(in.get() & 0xFF, INPUT_HISTORY);
+        if (ack > acked && ack <= sequence) acked = ack;
+        for (int k = 0; k < count; k++) {
+            int input = in.get();
+            long s = newest - k;
+            if (s <= applied) break;
+            int slot = (int) (s & (INPUT_HISTORY - 1));
+            inputs[slot] = input;
+            inputSequence[slot] = s;
+        }
+        received = Math.max(received, newest);
+    }
+
+    /**
+     * Plays the joined player's next input. While none arrives they keep moving as they
+     * were; after a burst the server skips ahead rather than lag, keeping any shots.
+     * @return GameWorld INPUT_ bits for this tick
+     */
+    public int nextInput() {
+        int fire = 0;
+        while (received - applied > MAX_BACKLOG) {
+            fire |= play(++applied) & GameWorld.INPUT_FIRE;
+        }
+        if (applied < received) fire |= play(++applied) & GameWorld.INPUT_FIRE;
+        return held | fire;
+    }
+
+    // Takes one input in as the held movement; a lost one leaves the movement unchanged
+    private int play(long s) {
+        int slot = (int) (s & (INPUT_HISTORY - 1));
+        if (inputSequence[slot] != s) return 0;
+        held = inputs[slot] & (GameWorld.INPUT_LEFT | GameWorld.INPUT_RIGHT);
+        return inputs[slot];
+    }
+
+    /**
+     * Sends the world's state to the joined player, if there is one. A snapshot too
+     * large for one datagram is skipped; the player keeps predicting until the next.
+     */
+    public void send(GameWorld world) throws IOException {
+        if (!joined) return;
+        WorldSnapshot snapshot = sent[(int) (++sequence % HISTORY)];
+        snapshot.copyFrom(world);
+        snapshot.sequence = sequence;
+        boolean delta = acked > 0 && sequence - acked < HISTORY;
+        WorldSnapshot baseline = delta ? sent[(int) (acked % HISTORY)] : empty;
+
+        packet.clear();
+        try {
+            packet.put(PROTOCOL);
+            SnapshotCodec.writeVarint(packet, sequence);
+            SnapshotCodec.writeVarint(packet, delta ? sequence - acked : 0);
+            SnapshotCodec.writeVarint(packet, applied);
+            codec.encode(baseline, snapshot, packet);
+        } catch (BufferOverflowException e) {
+            return;
+        }
+        packet.flip();
+        lastPacketSize = packet.remaining();
+        try {
+            channel.write(packet);
+        } catch (PortUnreachableException e) {
+            // Sent again next tick
+        }
+    }
+
+    /**
+     * @return Bytes in the latest snapshot datagram
+     */
+    public int getLastPacketSize() {
+        return lastPacketSize;
+    }
+
+    public boolean isJoined() {
+        return joined;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,241 @@
+package galaga;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Short-lived sparks for explosions and hits, in parallel primitive arrays like
+ * ProjectileStore. Removal swaps the last particle into the freed slot, so integration
+ * is one straight pass. Particles are drawn by writing pixels into an offscreen raster
+ * that is then blitted in one drawImage call, which stays cheap at tens of thousands
+ * of particles where a fillRect each would not.
+ *
+ * Particles are decoration: they are not part of the saved game state, and a full
+ * store drops new particles rather than growing past its capacity.
+ */
+public class ParticleStore {
+    public static final int SIZE = 2;          // Width and height of every particle in pixels
+    private static final float GRAVITY = 0.08f; // Added to the downward speed every tick
+    private static final float DRAG = 0.96f;    // Sideways speed kept every tick
+
+    private final int capacity;
+    float[] x, y;         // Current positions
+    float[] prevX, prevY; // Positions at the start of the tick, for render interpolation
+    float[] vx, vy;       // Pixels per tick
+    int[] rgb;            // Opaque color
+    int[] life;           // Ticks left
+    int[] lifespan;       // Ticks lived in total, for fading out
+    int count = 0;
+
+    // Offscreen layer the particles are rasterized into, created on first draw
+    private BufferedImage layer;
+    private int[] pixels;
+    private int drawnMinX, drawnMinY, drawnMaxX = -1, drawnMaxY = -1; // Box of the pixels in the layer
+    private int version = 0;          // Changes whenever the particles do
+    private int drawnVersion = -1;    // Version and alpha the layer holds, so partial repaints reuse it
+    private double drawnAlpha = Double.NaN;
+
+    /**
+     * @param capacity Most particles alive at once; arrays start small and grow up to it
+     */
+    public ParticleStore(int capacity) {
+        this.capacity = capacity;
+        allocate(Math.min(capacity, 256));
+    }
+
+    /**
+     * Emits a particle, or does nothing if the store is full.
+     * @param vx Pixels moved right per tick
+     * @param vy Pixels moved down per tick
+     * @param rgb Color, without alpha
+     * @param lifespan Ticks until it has faded out
+     */
+    public void add(float x, float y, float vx, float vy, int rgb, int lifespan) {
+        if (count == this.x.length) {
+            if (count == capacity) return;
+            allocate(Math.min(capacity, count * 2));
+        }
+        int i = count++;
+        this.x[i] = x;
+        this.y[i] = y;
+        prevX[i] = x;
+        prevY[i] = y;
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+        this.rgb[i] = rgb & 0xFFFFFF;
+        life[i] = lifespan;
+        this.lifespan[i] = lifespan;
+        version++;
+    }
+
+    /**
+     * Emits particles flying out in every direction from a point.
+     * @param speed Fastest speed in pixels per tick
+     * @param lifespan Longest life in ticks; each particle lives between half and all of it
+     */
+    public void burst(float x, float y, int particles, float speed, int rgb, int lifespan, GameRandom rand) {
+        for (int i = 0; i < particles; i++) {
+            double angle = rand.nextInt(360) * (Math.PI / 180);
+            float v = speed * (0.25f + rand.nextInt(76) / 100f);
+            add(x, y, (float) Math.cos(angle) * v, (float) Math.sin(angle) * v, rgb,
+                    lifespan / 2 + rand.nextInt(lifespan / 2 + 1));
+        }
+    }
+
+    /**
+     * Removes a particle by moving the last one into its slot.
+     */
+    public void remove(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        prevX[i] = prevX[last];
+        prevY[i] = prevY[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        rgb[i] = rgb[last];
+        life[i] = life[last];
+        lifespan[i] = lifespan[last];
+        version++;
+    }
+
+    public void clear() {
+        count = 0;
+        version++;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void savePositions() {
+        System.arraycopy(x, 0, prevX, 0, count);
+        System.arraycopy(y, 0, prevY, 0, count);
+    }
+
+    /**
+     * Moves every particle one tick, then removes those that have faded out or left the
+     * given area.
+     */
+    public void updateAll(int width, int height) {
+        for (int i = 0; i < count; i++) {
+            vx[i] *= DRAG;
+            vy[i] += GRAVITY;
+            x[i] += vx[i];
+            y[i] += vy[i];
+            life[i]--;
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            if (life[i] <= 0 || x[i] < 0 || x[i] >= width || y[i] < 0 || y[i] >= height) remove(i);
+        }
+        version++;
+    }
+
+    /**
+     * Replaces this store's particles with copies of another store's.
+     */
+    public void copyFrom(ParticleStore other) {
+        int n = other.count;
+        if (x.length < n) allocate(Math.min(capacity, Math.max(n, x.length * 2)));
+        n = Math.min(n, x.length);
+        System.arraycopy(other.x, 0, x, 0, n);
+        System.arraycopy(other.y, 0, y, 0, n);
+        System.arraycopy(other.prevX, 0, prevX, 0, n);
+        System.arraycopy(other.prevY, 0, prevY, 0, n);
+        System.arraycopy(other.vx, 0, vx, 0, n);
+        System.arraycopy(other.vy, 0, vy, 0, n);
+        System.arraycopy(other.rgb, 0, rgb, 0, n);
+        System.arraycopy(other.life, 0, life, 0, n);
+        System.arraycopy(other.lifespan, 0, lifespan, 0, n);
+        count = n;
+        version++;
+    }
+
+    /**
+     * Draws every particle, faded by its remaining life, between its previous and
+     * current position.
+     * @param alpha Interpolation factor between the previous and current tick
+     */
+    public void draw(Graphics g, double alpha) {
+        if (count == 0 && drawnMaxX < 0) return;
+        if (layer == null) {
+            layer = new BufferedImage(GameWorld.BOARD_WIDTH, GameWorld.BOARD_HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+            pixels = ((DataBufferInt) layer.getRaster().getDataBuffer()).getData();
+        }
+        // A damage-tracked frame paints in several clipped passes; only the first rasterizes
+        if (version != drawnVersion || alpha != drawnAlpha) rasterize(alpha);
+        if (drawnMaxX < 0) return;
+        int x1 = drawnMaxX + 1, y1 = drawnMaxY + 1;
+        g.drawImage(layer, drawnMinX, drawnMinY, x1, y1, drawnMinX, drawnMinY, x1, y1, null);
+    }
+
+    // Erases the previous frame's pixels, then writes each particle's square into the layer
+    private void rasterize(double alpha) {
+        int width = layer.getWidth(), height = layer.getHeight();
+        for (int row = drawnMinY; row <= drawnMaxY; row++) {
+            Arrays.fill(pixels, row * width + drawnMinX, row * width + drawnMaxX + 1, 0);
+        }
+
+        int minX = width, minY = height, maxX = -1, maxY = -1;
+        float back = (float) (1.0 - alpha);
+        for (int i = 0; i < count; i++) {
+            int px = (int) (x[i] + (prevX[i] - x[i]) * back);
+            int py = (int) (y[i] + (prevY[i] - y[i]) * back);
+            if (px < 0 || py < 0 || px > width - SIZE || py > height - SIZE) continue;
+
+            // Premultiplied, as the layer stores it
+            int a = 255 * life[i] / lifespan[i];
+            int c = rgb[i];
+            int argb = a << 24 | ((c >> 16 & 0xFF) * a / 255) << 16 | ((c >> 8 & 0xFF) * a / 255) << 8 | (c & 0xFF) * a / 255;
+            int p = py * width + px;
+            pixels[p] = argb;
+            pixels[p + 1] = argb;
+            pixels[p + width] = argb;
+            pixels[p + width + 1] = argb;
+
+            if (px < minX) minX = px;
+            if (py < minY) minY = py;
+            if (px > maxX) maxX = px;
+            if (py > maxY) maxY = py;
+        }
+        drawnMinX = minX;
+        drawnMinY = minY;
+        drawnMaxX = maxX < 0 ? -1 : maxX + SIZE - 1;
+        drawnMaxY = maxY < 0 ? -1 : maxY + SIZE - 1;
+        drawnVersion = version;
+        drawnAlpha = alpha;
+    }
+
+    /**
+     * Reports the box around every particle. One box rather than one per particle keeps
+     * damage tracking cheap however many there are.
+     */
+    public void addDamage(DamageRegion damage, double alpha) {
+        if (count == 0) return;
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        float back = (float) (1.0 - alpha);
+        for (int i = 0; i < count; i++) {
+            float px = x[i] + (prevX[i] - x[i]) * back;
+            float py = y[i] + (prevY[i] - y[i]) * back;
+            minX = Math.min(minX, px);
+            minY = Math.min(minY, py);
+            maxX = Math.max(maxX, px);
+            maxY = Math.max(maxY, py);
+        }
+        damage.add((int) minX, (int) minY, (int) maxX - (int) minX + SIZE, (int) maxY - (int) minY + SIZE);
+    }
+
+    private void allocate(int size) {
+        x = x == null ? new float[size] : Arrays.copyOf(x, size);
+        y = y == null ? new float[size] : Arrays.copyOf(y, size);
+        prevX = prevX == null ? new float[size] : Arrays.copyOf(prevX, size);
+        prevY = prevY == null ? new float[size] : Arrays.copyOf(prevY, size);
+        vx = vx == null ? new float[size] : Arrays.copyOf(vx, size);
+        vy = vy == null ? new float[size] : Arrays.copyOf(vy, size);
+        rgb = rgb == null ? new int[size] : Arrays.copyOf(rgb, size);
+        life = life == null ? new int[size] : Arrays.copyOf(life, size);
+        lifespan = lifespan == null ? new int[size] : Arrays.copyOf(lifespan, size);
+    }
+}
@@ -0,0 +1,624 @@
+package galaga;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The game window. The world is simulated on the GameLoop's thread, which owns it once
+ * the loop starts: key events reach it through an InputQueue, and after each frame's
+ * ticks a copy of what to draw is published through a SnapshotExchange. Painting on the
+ * Swing thread only ever reads the latest published snapshot.
+ *
+ * With -Dgalaga.host=<port> the game waits for a second player on that UDP port, and
+ * with -Dgalaga.join=<host:port> it plays as the second player of a game hosted there.
+ *
+ * A game in progress is saved to -Dgalaga.save (galaga.sav by default) when it is paused
+ * with P, every AUTOSAVE_TICKS, and when the program exits, and resumes paused on the
+ * next start.
+ */
+public class PlayGame extends JPanel implements GameLoop.Listener, KeyListener {
+    private static final long serialVersionUID = 1L;
+
+    // Events sent from key handlers to the simulation thread
+    private static final int LEFT_PRESSED = 0, LEFT_RELEASED = 1, RIGHT_PRESSED = 2, RIGHT_RELEASED = 3;
+    private static final int FIRE = 4, RESTART = 5, SEEK_BACK = 6, SEEK_FORWARD = 7, PAUSE = 8;
+    private static final int AUTOSAVE_TICKS = 500; // Ten seconds at 50 Hz
+
+    private GameLoop loop = new GameLoop(this);
+    private final InputQueue input = new InputQueue();
+    private final SnapshotExchange frames = new SnapshotExchange();
+    private final AtomicBoolean presentQueued = new AtomicBoolean(); // A present() is waiting on the Swing thread
+    private final Runnable present = this::present;
+    private ActiveRenderer activeRenderer; // Set when -Dgalaga.activeRendering=true
+    private DamageRegion damage;           // Set when -Dgalaga.dirtyRects=true
+    private boolean partialPaint = false;  // Painting part of a damage-tracked frame
+    private int shownLives, shownWave, shownScore; // Counters in the last damage-tracked frame
+    private String shownMessage = "";
+    private boolean shownGameOver = false;
+    private FrameStats stats = new FrameStats();
+    private StatsOverlay statsOverlay = new StatsOverlay(stats);
+    private Hud hud; // All text drawn over the game, from cached images
+    private Starfield starfield; // Background, unless -Dgalaga.starfield=false
+    private long lastTickEnd = System.nanoTime(); // For tick-to-present latency; simulation thread
+    GameWorld world; // Only touched by the loop thread once the loop has started
+    private String recordPath = System.getProperty("galaga.record"); // Replay file written after each game
+    private Replay recording;
+    private ReplayPlayer replayPlayer; // Set when -Dgalaga.replay=<file>
+    private NetServer server; // Set when hosting with -Dgalaga.host=<port>
+    private NetClient client; // Set when joining with -Dgalaga.join=<host:port>
+    private final Path savePath; // Null when the game neither resumes nor saves
+    private final ExecutorService saver = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "save-io");
+        thread.setDaemon(true); // The exit hook drains it
+        return thread;
+    });
+    private boolean paused = false; // Simulation thread
+    private int replaySpeed = Integer.getInteger("galaga.replaySpeed", 1); // Recorded ticks per loop tick
+    private Image logo;
+    private JTextField textField = new JTextField();
+    private JButton startButton = new JButton("Start");
+
+    // Keys held or pressed since the last tick, turned into GameWorld input bits on the simulation thread
+    private boolean leftHeld = false;
+    private boolean rightHeld = false;
+    private boolean firePressed = false;
+
+    volatile boolean gameStart = false;
+    private String playerName = "";
+
+    public static final int BOARD_WIDTH = GameWorld.BOARD_WIDTH;
+    public static final int BOARD_HEIGHT = GameWorld.BOARD_HEIGHT;
+    static final String LOGO = "Sprites/MainLogo.jpg";
+    static final int LOGO_WIDTH = 360, LOGO_HEIGHT = 180;
+
+    private final Leaderboard leaderboard; // Null when runs are not recorded
+    private String[] highScores = {}; // Filled in from the leaderboard after each game
+    private String rankText = "";
+
+    public PlayGame() {
+        this(true);
+    }
+
+    /**
+     * @param persistent Whether the game resumes and autosaves galaga.sav and records runs
+     *                   on the leaderboard; benchmarks build one without, so they leave no
+     *                   files behind
+     */
+    PlayGame(boolean persistent) {
+        savePath = persistent ? Path.of(System.getProperty("galaga.save", "galaga.sav")) : null;
+        leaderboard = persistent ? new Leaderboard(Path.of(System.getProperty("galaga.leaderboard", "leaderboard"))) : null;
+        setFocusable(true);
+        setLayout(null);
+        setPreferredSize(new Dimension(BOARD_WIDTH, BOARD_HEIGHT));
+        setBackground(Color.BLACK);
+        addKeyListener(this);
+        hud = new Hud(getFont());
+        if (Boolean.parseBoolean(System.getProperty("galaga.starfield", "true"))) {
+            starfield = new Starfield(BOARD_WIDTH, BOARD_HEIGHT, 1);
+        }
+        if (ActiveRenderer.isEnabled()) {
+            activeRenderer = new ActiveRenderer(this, g -> drawScene(g, frames.current()));
+        } else if (Boolean.getBoolean("galaga.dirtyRects")) {
+            damage = new DamageRegion(BOARD_WIDTH, BOARD_HEIGHT);
+        }
+        String statsExport = System.getProperty("galaga.statsExport");
+        if (statsExport != null) {
+            stats.exportOnExit(statsExport);
+        }
+
+        EnemyFactory.preloadSprites();
+        String replayPath = System.getProperty("galaga.replay");
+        if (replayPath != null) {
+            try {
+                replayPlayer = new ReplayPlayer(Replay.read(Path.of(replayPath)));
+            } catch (IOException | IllegalArgumentException e) { // Unreadable, or recorded under other waves
+                System.err.println("Could not load replay: " + e.getMessage());
+            }
+        }
+        world = replayPlayer != null ? replayPlayer.getWorld() : new GameWorld(System.nanoTime(), loop.getTickNanos());
+        if (replayPlayer == null) startNetwork();
+        boolean resumed = replayPlayer == null && server == null && client == null && resumeSave();
+        paused = resumed;
+        publishFrame(1.0); // What the menu shows before the loop starts
+
+        // Galaga main menu logo
+        logo = SpriteCache.get(LOGO, LOGO_WIDTH, LOGO_HEIGHT);
+
+        // Set the textField for the name
+        textField.setBounds(320, 350, 200,30);
+        textField.setBorder(BorderFactory.createLineBorder(Color.WHITE));
+        this.add(textField);
+
+        // Add the start button
+        startButton.setBounds(375, 300, 100,30);
+        startButton.addActionListener(e -> {  playerName = textField.getText().toUpperCase();
+            // get the first three characters
+            if (playerName.length() > 3) playerName = playerName.substring(0, 3);
+            // Remove the textField and startButton when the game starts
+            textField.setVisible(false);
+            textField.setFocusable(false);
+            startButton.setFocusable(false);
+            startButton.setVisible(false);
+
+            // Start the game
+            gameStart = true;
+            startRecording();
+            loop.start();});
+
+        this.add(startButton);
+
+        // Replays and resumed games skip the menu
+        if (replayPlayer != null || resumed) {
+            textField.setVisible(false);
+            startButton.setVisible(false);
+            gameStart = true;
+            if (resumed) startRecording();
+            loop.start();
+        }
+        if (persistent) Runtime.getRuntime().addShutdownHook(new Thread(this::saveOnExit, "save-on-exit"));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
+        super.paintComponent(g);
+        // Damage-tracked frames draw the snapshot their damage was collected from
+        WorldSnapshot frame = partialPaint || (damage != null && gameStart) ? frames.current() : frames.latest();
+        drawScene(g, frame);
+        if (partialPaint) return; // paintDamage measures the whole frame
+        long end = System.nanoTime();
+        stats.frameMeasured(end - start, end - frame.tickEnd, frame);
+    }
+
+    // Draws one frame on top of an already cleared background
+    private void drawScene(Graphics g, WorldSnapshot frame) {
+        Hero hero = frame.hero;
+        double alpha = frame.alpha;
+
+        // Damage-tracked frames hold the stars still; scrolling would dirty the whole board
+        if (starfield != null) starfield.draw(g, damage != null && gameStart ? 0 : System.nanoTime());
+
+        // Entities are drawn between their previous and current tick positions
+        int dx = offset(hero.prevX, hero.x, alpha), dy = offset(hero.prevY, hero.y, alpha);
+        g.translate(dx, dy);
+        hero.draw(g);
+        g.translate(-dx, -dy);
+        if (frame.twoPlayer) {
+            Hero partner = frame.partner;
+            int px = offset(partner.prevX, partner.x, alpha), py = offset(partner.prevY, partner.y, alpha);
+            g.translate(px, py);
+            partner.draw(g);
+            g.translate(-px, -py);
+        }
+
+        frame.enemies.draw(g, alpha);
+        frame.lasers.draw(g, alpha);
+        frame.enemyBullets.draw(g, alpha);
+        frame.particles.draw(g, alpha);
+
+        hud.drawCounters(g, frame.lives, frame.wave, frame.score);
+
+        if(!gameStart) {
+            hud.drawNameLabel(g);
+            // Draws the Main Logo if image is found and the game hasn't started
+            if (logo != null) {
+                g.drawImage(logo, (BOARD_WIDTH - logo.getWidth(this)) / 2, 100, this);
+            }
+        }
+
+        hud.drawMessage(g, frame.message);
+
+        if (frame.gameOver) {
+            // Display text for the end of the game
+            hud.drawGameOver(g, frame.score, highScores, rankText);
+        }
+
+        statsOverlay.draw(g);
+    }
+
+    // Pixel offset from the current position back toward the previous one for this frame
+    private static int offset(int previous, int current, double alpha) {
+        return (int) Math.round((previous - current) * (1.0 - alpha));
+    }
+
+    @Override
+    public void render(double alpha) {
+        publishFrame(alpha);
+        // Active rendering and damage tracking only take over once the menu components are hidden
+        if ((activeRenderer != null || damage != null) && gameStart) {
+            // At most one waiting; it draws whatever is newest when it runs
+            if (!presentQueued.getAndSet(true)) SwingUtilities.invokeLater(present);
+            return;
+        }
+        repaint(); // Safe from any thread
+    }
+
+    // Copies the world into the exchange for the Swing thread to draw
+    private void publishFrame(double alpha) {
+        WorldSnapshot back = frames.back();
+        if (client != null && gameStart) {
+            // The host's world, with our own ship where prediction puts it
+            back.copyFrom(client.latest());
+            back.partner.copyFrom(client.predicted());
+        } else {
+            back.copyFrom(world);
+        }
+        if (paused) back.message = "Paused";
+        back.alpha = alpha;
+        back.tickEnd = lastTickEnd;
+        frames.publish();
+    }
+
+    // Draws the newest snapshot on the Swing thread without going through repaint()
+    private void present() {
+        presentQueued.set(false);
+        WorldSnapshot frame = frames.latest();
+        if (activeRenderer == null) {
+            paintDamage(frame);
+            return;
+        }
+        long start = System.nanoTime();
+        if (activeRenderer.present()) {
+            long end = System.nanoTime();
+            stats.frameMeasured(end - start, end - frame.tickEnd, frame);
+            return;
+        }
+        repaint();
+    }
+
+    // Repaints only the parts of the board that changed since the last frame
+    private void paintDamage(WorldSnapshot frame) {
+        collectDamage(frame);
+        boolean full = damage.finish();
+        // Painted right away rather than through repaint(), so every pass draws the snapshot the
+        // damage was collected from. Rectangles are painted one by one: repaint(Rectangle) calls
+        // would be coalesced by the RepaintManager into their bounding box, which is usually most
+        // of the board
+        long start = System.nanoTime();
+        partialPaint = true;
+        if (full) {
+            paintImmediately(0, 0, getWidth(), getHeight());
+        } else {
+            for (int i = 0; i < damage.getRectCount(); i++) {
+                paintImmediately(damage.getX(i), damage.getY(i), damage.getWidth(i), damage.getHeight(i));
+            }
+        }
+        partialPaint = false;
+        long end = System.nanoTime();
+        stats.frameMeasured(end - start, end - frame.tickEnd, frame);
+    }
+
+    // Reports everything drawScene will draw for the snapshot
+    private void collectDamage(WorldSnapshot frame) {
+        Hero hero = frame.hero;
+        double alpha = frame.alpha;
+        hero.addDamage(damage, offset(hero.prevX, hero.x, alpha), offset(hero.prevY, hero.y, alpha));
+        if (frame.twoPlayer) {
+            Hero partner = frame.partner;
+            partner.addDamage(damage, offset(partner.prevX, partner.x, alpha), offset(partner.prevY, partner.y, alpha));
+        }
+        frame.enemies.addDamage(damage, alpha);
+        frame.lasers.addDamage(damage, alpha);
+        frame.enemyBullets.addDamage(damage, alpha);
+        frame.particles.addDamage(damage, alpha);
+        statsOverlay.addDamage(damage);
+
+        if (frame.lives != shownLives || frame.wave != shownWave || frame.score != shownScore) {
+            damage.add(0, 0, BOARD_WIDTH, 30); // Counter row
+            shownLives = frame.lives;
+            shownWave = frame.wave;
+            shownScore = frame.score;
+        }
+        // Text screens come and go rarely, so they simply repaint everything
+        if (!frame.message.equals(shownMessage) || frame.gameOver != shownGameOver) {
+            damage.invalidateAll();
+            shownMessage = frame.message;
+            shownGameOver = frame.gameOver;
+        }
+    }
+
+    @Override
+    public void tick() {
+        handleInput();
+        if (replayPlayer != null) {
+            tickReplay();
+            return;
+        }
+        if (client != null) {
+            tickClient();
+            return;
+        }
+        if (paused) return;
+        if (world.isGameOver()) {
+            if (server != null) {
+                partnerInput(); // Keeps acknowledgements flowing while the game over screen shows
+                sendSnapshot();
+            }
+            return;
+        }
+
+        int input = localInput();
+        if (server != null) input |= partnerInput() << GameWorld.PARTNER_SHIFT;
+        if (recording != null) recording.record(world, input);
+        long start = System.nanoTime();
+        world.tick(input);
+        lastTickEnd = System.nanoTime();
+        long collision = world.getCollisionNanos();
+        stats.tickMeasured(lastTickEnd - start - collision, collision);
+        if (server != null) sendSnapshot();
+
+        if (world.isGameOver()) {
+            // The loop keeps running so the game over screen can take a restart
+            saveRecording();
+            discardSave();
+            afterGame();
+        } else if (world.getTicks() % AUTOSAVE_TICKS == 0) {
+            saveGame();
+        }
+    }
+
+    // GameWorld input bits for the keys held or pressed since the last tick
+    private int localInput() {
+        int input = 0;
+        if (leftHeld) input |= GameWorld.INPUT_LEFT;
+        if (rightHeld) input |= GameWorld.INPUT_RIGHT;
+        if (firePressed) input |= GameWorld.INPUT_FIRE;
+        firePressed = false;
+        return input;
+    }
+
+    // As the second player, the host simulates; we only send input and predict our ship
+    private void tickClient() {
+        int input = localInput();
+        long start = System.nanoTime();
+        try {
+            client.tick(input);
+        } catch (IOException e) {
+            networkFailed(e);
+        }
+        lastTickEnd = System.nanoTime();
+        stats.tickMeasured(lastTickEnd - start, 0);
+    }
+
+    // Reads the joined player's datagrams and returns their input bits for this tick
+    private int partnerInput() {
+        try {
+            server.receive();
+            return server.nextInput();
+        } catch (IOException e) {
+            networkFailed(e);
+            return 0;
+        }
+    }
+
+    private void sendSnapshot() {
+        if (server == null) return;
+        try {
+            server.send(world);
+        } catch (IOException e) {
+            networkFailed(e);
+        }
+    }
+
+    // Opens the channel for -Dgalaga.host or -Dgalaga.join, if either is set
+    private void startNetwork() {
+        String host = System.getProperty("galaga.host");
+        String join = System.getProperty("galaga.join");
+        try {
+            if (host != null) {
+                server = new NetServer(Integer.parseInt(host));
+                world.setTwoPlayer(true);
+            } else if (join != null) {
+                int colon = join.lastIndexOf(':');
+                String hostName = join.substring(0, colon);
+                client = new NetClient(new InetSocketAddress(hostName, Integer.parseInt(join.substring(colon + 1))));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not start network play: " + e.getMessage());
+        }
+    }
+
+    // Network errors other than a missing peer end network play; the game goes on for one player
+    private void networkFailed(IOException e) {
+        System.err.println("Network play stopped: " + e.getMessage());
+        server = null;
+        client = null;
+    }
+
+    // Applies the key events queued since the last tick
+    private void handleInput() {
+        for (int event = input.poll(); event != InputQueue.EMPTY; event = input.poll()) {
+            switch (event) {
+                case LEFT_PRESSED -> leftHeld = true;
+                case LEFT_RELEASED -> leftHeld = false;
+                case RIGHT_PRESSED -> rightHeld = true;
+                case RIGHT_RELEASED -> rightHeld = false;
+                case FIRE -> firePressed |= !world.isGameOver() && !paused; // Fired on the next tick
+                case RESTART -> {
+                    if (world.isGameOver()) resetGame();
+                }
+                case SEEK_BACK -> seekReplay(-5);
+                case SEEK_FORWARD -> seekReplay(5);
+                case PAUSE -> {
+                    paused = !paused && !world.isGameOver();
+                    if (paused) saveGame();
+                }
+            }
+        }
+    }
+
+    // Plays replaySpeed recorded ticks; nothing changes once the replay has ended
+    private void tickReplay() {
+        long start = System.nanoTime();
+        for (int i = 0; i < replaySpeed && replayPlayer.step(); i++) {
+            // step() advances the world
+        }
+        lastTickEnd = System.nanoTime();
+        long collision = world.getCollisionNanos();
+        stats.tickMeasured(lastTickEnd - start - collision, collision);
+    }
+
+    // Moves the replay by the given number of seconds
+    private void seekReplay(int seconds) {
+        int ticks = (int) (seconds * 1_000_000_000L / loop.getTickNanos());
+        replayPlayer.seek(replayPlayer.getPosition() + ticks);
+    }
+
+    // Loads the game saved by an earlier run, if there is one
+    private boolean resumeSave() {
+        if (savePath == null || !Files.exists(savePath)) return false;
+        try {
+            SaveGame save = SaveGame.read(savePath);
+            world = save.restore();
+            playerName = save.getPlayerName();
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Could not resume saved game: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Copies the world on the simulation thread and writes it in the background
+    private void saveGame() {
+        if (savePath == null || replayPlayer != null || server != null || client != null) return; // Only one-player games resume
+        SaveGame save = SaveGame.of(world, playerName);
+        saver.execute(() -> {
+            try {
+                save.write(savePath);
+            } catch (IOException e) {
+                System.err.println("Could not save game: " + e.getMessage());
+            }
+        });
+    }
+
+    // A finished game is not resumed
+    private void discardSave() {
+        if (savePath == null) return;
+        saver.execute(() -> {
+            try {
+                Files.deleteIfExists(savePath);
+            } catch (IOException e) {
+                System.err.println("Could not remove saved game: " + e.getMessage());
+            }
+        });
+    }
+
+    // Shutdown hook: saves the game in progress once the loop has stopped touching it
+    private void saveOnExit() {
+        try {
+            loop.stopAndWait();
+            if (gameStart && !world.isGameOver()) saveGame();
+            saver.shutdown();
+            saver.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void startRecording() {
+        if (recordPath != null && client == null) recording = Replay.startRecording(world, Replay.DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    private void saveRecording() {
+        if (recording == null) return;
+        try {
+            recording.write(Path.of(recordPath));
+        } catch (IOException e) {
+            System.err.println("Could not save replay: " + e.getMessage());
+        }
+        recording = null;
+    }
+
+    @Override
+    public void keyPressed(KeyEvent e) {
+        if (replayPlayer != null) {
+            // Arrows seek five seconds while watching a replay
+            if (e.getKeyCode() == KeyEvent.VK_LEFT) input.offer(SEEK_BACK);
+            if (e.getKeyCode() == KeyEvent.VK_RIGHT) input.offer(SEEK_FORWARD);
+            if (e.getKeyCode() == KeyEvent.VK_F3) {
+                statsOverlay.toggle();
+                repaint();
+            }
+            return;
+        }
+        if (e.getKeyCode() == KeyEvent.VK_LEFT) input.offer(LEFT_PRESSED);
+        if (e.getKeyCode() == KeyEvent.VK_RIGHT) input.offer(RIGHT_PRESSED);
+        if (e.getKeyCode() == KeyEvent.VK_SPACE) input.offer(FIRE);
+        if (e.getKeyCode() == KeyEvent.VK_ENTER) input.offer(RESTART);
+        if (e.getKeyCode() == KeyEvent.VK_P) input.offer(PAUSE);
+        if (e.getKeyCode() == KeyEvent.VK_F3) {
+            statsOverlay.toggle();
+            repaint();
+        }
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+        if (replayPlayer != null) return;
+        if (e.getKeyCode() == KeyEvent.VK_LEFT) input.offer(LEFT_RELEASED);
+        if (e.getKeyCode() == KeyEvent.VK_RIGHT) input.offer(RIGHT_RELEASED);
+    }
+
+    @Override
+    public void keyTyped(KeyEvent e) {}
+
+    // Runs on the simulation thread
+    private void resetGame() {
+        world.reset();
+        firePressed = false;
+        startRecording();
+    }
+
+    // Records the finished game; the board is shown once the leaderboard thread answers
+    private void afterGame() {
+        SwingUtilities.invokeLater(() -> { // The table is only touched by the Swing thread
+            highScores = new String[0];
+            rankText = "";
+        });
+        if (leaderboard == null) return;
+        leaderboard.submit(playerName, world.getScore())
+                .thenCombine(leaderboard.top(3), (rank, top) -> {
+                    String[] lines = new String[top.size()];
+                    for (int i = 0; i < lines.length; i++) {
+                        lines[i] = top.get(i).name() + " " + top.get(i).score();
+                    }
+                    SwingUtilities.invokeLater(() -> {
+                        highScores = lines;
+                        rankText = "Your rank: " + rank;
+                        repaint();
+                    });
+                    return rank;
+                });
+    }
+
+
+    public static void main(String[] args) {
+        try {
+            Balance.standard(); // A broken wave script stops the game here, before any world is built
+        } catch (UncheckedIOException e) {
+            System.err.println("Could not load waves: " + e.getCause().getMessage());
+            System.exit(1);
+        }
+        // Sprites are in the cache before anything draws, so the title screen decodes nothing
+        AssetLoader.Result assets = AssetLoader.load(AssetBundle.DEFAULT_FILE, null);
+        for (AssetBundle.Sprite sprite : assets.missing()) {
+            System.err.println("Image not found! " + sprite.file());
+        }
+        JFrame frame = new JFrame("Galaga Game");
+        PlayGame game = new PlayGame();
+        frame.add(game);
+        frame.pack();
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setVisible(true);
+    }
+}
@@ -0,0 +1,189 @@
+package galaga;
+
+import java.awt.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Primitive-backed storage for one kind of projectile. Positions and velocities live in
+ * parallel int arrays and removal swaps the last projectile into the freed slot, so
+ * updating, culling and drawing are straight passes over the arrays with no objects.
+ */
+public class ProjectileStore {
+    final int width, height;  // Size shared by every projectile in this store
+    private final Color color;
+
+    int[] x, y;               // Current positions
+    int[] prevX, prevY;       // Positions at the start of the tick, for render interpolation
+    int[] vy;                 // Vertical velocity in pixels per tick
+    int count = 0;
+
+    /**
+     * @param width Width of each projectile
+     * @param height Height of each projectile
+     * @param color Fill color used by draw
+     * @param capacity Initial number of slots; the store grows when it fills up
+     */
+    public ProjectileStore(int width, int height, Color color, int capacity) {
+        this.width = width;
+        this.height = height;
+        this.color = color;
+        x = new int[capacity];
+        y = new int[capacity];
+        prevX = new int[capacity];
+        prevY = new int[capacity];
+        vy = new int[capacity];
+    }
+
+    /**
+     * Emits a projectile.
+     * @param velocity Pixels moved down per tick; negative moves up
+     */
+    public void add(int x, int y, int velocity) {
+        if (count == this.x.length) grow();
+        this.x[count] = x;
+        this.y[count] = y;
+        prevX[count] = x;
+        prevY[count] = y;
+        vy[count] = velocity;
+        count++;
+    }
+
+    /**
+     * Removes a projectile by moving the last one into its slot. Order is not preserved,
+     * so a loop removing at index i must look at index i again.
+     */
+    public void remove(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        prevX[i] = prevX[last];
+        prevY[i] = prevY[last];
+        vy[i] = vy[last];
+    }
+
+    /**
+     * Appends every projectile of another store, keeping their order.
+     */
+    public void addAll(ProjectileStore other) {
+        while (count + other.count > x.length) grow();
+        System.arraycopy(other.x, 0, x, count, other.count);
+        System.arraycopy(other.y, 0, y, count, other.count);
+        System.arraycopy(other.prevX, 0, prevX, count, other.count);
+        System.arraycopy(other.prevY, 0, prevY, count, other.count);
+        System.arraycopy(other.vy, 0, vy, count, other.count);
+        count += other.count;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void savePositions() {
+        System.arraycopy(x, 0, prevX, 0, count);
+        System.arraycopy(y, 0, prevY, 0, count);
+    }
+
+    public void updateAll() {
+        for (int i = 0; i < count; i++) {
+            y[i] += vy[i];
+        }
+    }
+
+    /**
+     * Removes every projectile whose top is outside the given vertical range.
+     */
+    public void cull(int minY, int maxY) {
+        for (int i = count - 1; i >= 0; i--) {
+            if (y[i] < minY || y[i] > maxY) remove(i);
+        }
+    }
+
+    /**
+     * Finds a projectile overlapping the given box.
+     * @return Its index, or -1 if none overlaps
+     */
+    public int firstOverlap(int bx, int by, int bw, int bh) {
+        for (int i = 0; i < count; i++) {
+            if (Collision.overlaps(x[i], y[i], width, height, bx, by, bw, bh)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a projectile covering a solid pixel of a mask.
+     * @param mx Horizontal position of the mask
+     * @param my Vertical position of the mask
+     * @return Its index, or -1 if none does
+     */
+    public int firstOverlap(int mx, int my, CollisionMask mask) {
+        for (int i = 0; i < count; i++) {
+            if (Collision.overlaps(x[i], y[i], width, height, mx, my, mask.width, mask.height)
+                    && mask.overlapsBox(mx, my, x[i], y[i], width, height)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Draws every projectile with a single color change.
+     * @param alpha Interpolation factor between the previous and current tick
+     */
+    public void draw(Graphics g, double alpha) {
+        g.setColor(color);
+        double back = 1.0 - alpha;
+        for (int i = 0; i < count; i++) {
+            int drawX = x[i] + (int) Math.round((prevX[i] - x[i]) * back);
+            int drawY = y[i] + (int) Math.round((prevY[i] - y[i]) * back);
+            g.fillRect(drawX, drawY, width, height);
+        }
+    }
+
+    /**
+     * Reports the box of every projectile where draw would put it.
+     */
+    public void addDamage(DamageRegion damage, double alpha) {
+        double back = 1.0 - alpha;
+        for (int i = 0; i < count; i++) {
+            int drawX = x[i] + (int) Math.round((prevX[i] - x[i]) * back);
+            int drawY = y[i] + (int) Math.round((prevY[i] - y[i]) * back);
+            damage.add(drawX, drawY, width, height);
+        }
+    }
+
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeInt(x[i]);
+            out.writeInt(y[i]);
+            out.writeInt(prevX[i]);
+            out.writeInt(prevY[i]);
+            out.writeInt(vy[i]);
+        }
+    }
+
+    public void readState(DataInput in) throws IOException {
+        count = 0;
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            add(in.readInt(), in.readInt(), 0);
+            prevX[i] = in.readInt();
+            prevY[i] = in.readInt();
+            vy[i] = in.readInt();
+        }
+    }
+
+    private void grow() {
+        int size = Math.max(16, x.length * 2);
+        x = Arrays.copyOf(x, size);
+        y = Arrays.copyOf(y, size);
+        prevX = Arrays.copyOf(prevX, size);
+        prevY = Arrays.copyOf(prevY, size);
+        vy = Arrays.copyOf(vy, size);
+    }
+}
@@ -0,0 +1,188 @@
+package galaga;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Recorded game: the input bits of every tick plus a full state keyframe every
+ * keyframeInterval ticks. Keyframe 0 is the state the recording started from, so a
+ * replay never depends on how that state came about.
+ *
+ * File layout, all counts and lengths as unsigned varints:
+ *   "GRPL" magic, version byte, seed (long), tick length in ns (long),
+ *   keyframe interval, tick count,
+ *   input runs: run count, then per run the input byte and the run length in ticks,
+ *   keyframes: count, then per keyframe its byte length and the bytes.
+ */
+public class Replay {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 500; // Ten seconds at 50 Hz
+    private static final int MAGIC = 0x4752504C; // "GRPL"
+    private static final int MAX_TICKS = 50 * 60 * 60 * 24; // A day at 50 Hz, far past any real game
+    private static final int VERSION = 6; // 2: per-enemy random state, 3: attack path positions, 4: enemy components, 5: second player, 6: wave scripts
+
+    private final long seed;
+    private final long tickNanos;
+    private final int keyframeInterval;
+    private byte[] inputs = new byte[4096]; // One input byte per tick
+    private int tickCount = 0;
+    private final ArrayList<byte[]> keyframes = new ArrayList<>();
+
+    private Replay(long seed, long tickNanos, int keyframeInterval) {
+        this.seed = seed;
+        this.tickNanos = tickNanos;
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Starts recording from the world's current state.
+     * @param world World about to be ticked; each tick must be reported through record()
+     */
+    public static Replay startRecording(GameWorld world, int keyframeInterval) {
+        Replay replay = new Replay(world.getSeed(), world.getTickNanos(), keyframeInterval);
+        replay.keyframes.add(world.snapshot());
+        return replay;
+    }
+
+    /**
+     * Records one tick. Call right before world.tick(input).
+     */
+    public void record(GameWorld world, int input) {
+        if (tickCount > 0 && tickCount % keyframeInterval == 0) {
+            keyframes.add(world.snapshot());
+        }
+        if (tickCount == inputs.length) inputs = Arrays.copyOf(inputs, tickCount * 2);
+        inputs[tickCount++] = (byte) input;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    public int getInput(int tick) {
+        return inputs[tick];
+    }
+
+    /**
+     * @return State right before tick index * keyframeInterval was played
+     */
+    public byte[] getKeyframe(int index) {
+        return keyframes.get(index);
+    }
+
+    public int getKeyframeCount() {
+        return keyframes.size();
+    }
+
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+            out.writeLong(tickNanos);
+            writeVarint(out, keyframeInterval);
+            writeVarint(out, tickCount);
+
+            int runs = 0;
+            for (int i = 0; i < tickCount; i++) {
+                if (i == 0 || inputs[i] != inputs[i - 1]) runs++;
+            }
+            writeVarint(out, runs);
+            for (int i = 0; i < tickCount; ) {
+                int start = i;
+                while (i < tickCount && inputs[i] == inputs[start]) i++;
+                out.writeByte(inputs[start]);
+                writeVarint(out, i - start);
+            }
+
+            writeVarint(out, keyframes.size());
+            for (byte[] keyframe : keyframes) {
+                writeVarint(out, keyframe.length);
+                out.write(keyframe);
+            }
+        }
+    }
+
+    /**
+     * Reads a replay written by write.
+     * @throws IOException If the file cannot be read or any count or length in it is out of
+     *         range, so a damaged file is never trusted with an allocation or a division
+     */
+    public static Replay read(Path file) throws IOException {
+        long fileSize = Files.size(file);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a replay file: " + file);
+            int version = in.readUnsignedByte();
+            if (version != VERSION) throw new IOException("Unsupported replay version " + version);
+
+            long seed = in.readLong();
+            long tickNanos = in.readLong();
+            if (tickNanos <= 0) throw new IOException("Bad tick length " + tickNanos);
+            int keyframeInterval = checkRange(readVarint(in), 1, MAX_TICKS, "keyframe interval");
+            Replay replay = new Replay(seed, tickNanos, keyframeInterval);
+            int ticks = checkRange(readVarint(in), 0, MAX_TICKS, "tick count");
+            replay.inputs = new byte[Math.max(1, ticks)];
+            int runs = checkRange(readVarint(in), 0, ticks, "input run count");
+            for (int r = 0; r < runs; r++) {
+                byte input = in.readByte();
+                int length = checkRange(readVarint(in), 1, ticks - replay.tickCount, "input run length");
+                Arrays.fill(replay.inputs, replay.tickCount, replay.tickCount + length, input);
+                replay.tickCount += length;
+            }
+            if (replay.tickCount != ticks) throw new IOException("Input runs do not cover every tick");
+
+            int keyframeCount = checkRange(readVarint(in), 1, ticks / keyframeInterval + 1, "keyframe count");
+            for (int k = 0; k < keyframeCount; k++) {
+                byte[] keyframe = new byte[checkRange(readVarint(in), 1, fileSize, "keyframe length")];
+                in.readFully(keyframe);
+                replay.keyframes.add(keyframe);
+            }
+            return replay;
+        }
+    }
+
+    private static int checkRange(int value, int min, long max, String what) throws IOException {
+        if (value < min || value > max) throw new IOException("Replay " + what + " " + value + " out of range");
+        return value;
+    }
+
+    // Seven bits per byte, low bits first, high bit set on every byte but the last
+    static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new IOException("Truncated varint");
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,60 @@
+package galaga;
+
+/**
+ * Plays a Replay back into a GameWorld. Seeking restores the nearest keyframe at or
+ * before the target and replays at most one keyframe interval of ticks, so any point
+ * is reachable in constant time regardless of the replay's length.
+ */
+public class ReplayPlayer {
+    private final Replay replay;
+    private final GameWorld world;
+    private int position = 0; // Index of the next tick to play
+
+    /**
+     * @throws IllegalArgumentException If the replay's first keyframe does not fit this
+     *         build, such as a game recorded with different wave scripts
+     */
+    public ReplayPlayer(Replay replay) {
+        this.replay = replay;
+        this.world = new GameWorld(replay.getSeed(), replay.getTickNanos());
+        seek(0);
+    }
+
+    /**
+     * Moves to the state right before the given tick is played.
+     * @param tick Target tick, clamped to the recorded range
+     */
+    public void seek(int tick) {
+        tick = Math.max(0, Math.min(tick, replay.getTickCount()));
+        int keyframe = Math.min(tick / replay.getKeyframeInterval(), replay.getKeyframeCount() - 1);
+        world.restore(replay.getKeyframe(keyframe));
+        position = keyframe * replay.getKeyframeInterval();
+        while (position < tick) step();
+    }
+
+    /**
+     * Plays the next recorded tick.
+     * @return false if the replay has ended
+     */
+    public boolean step() {
+        if (position >= replay.getTickCount()) return false;
+        world.tick(replay.getInput(position++));
+        return true;
+    }
+
+    public boolean isFinished() {
+        return position >= replay.getTickCount();
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public GameWorld getWorld() {
+        return world;
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+}
@@ -0,0 +1,133 @@
+package galaga;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A game in progress, saved so a run survives the cabinet being paused or switched off.
+ * Taking one copies the world's complete state, which is cheap enough for the
+ * simulation thread; writing it to disk can then happen on any thread.
+ *
+ * File layout, big-endian:
+ *   "GSAV" magic, save version byte, GameWorld.STATE_VERSION byte, seed (long),
+ *   tick length in ns (long), player name length (byte) and UTF-8 bytes,
+ *   state length (int), the GameWorld.writeState bytes, CRC32 of everything before it (int).
+ * A save is written under a temporary name, forced and renamed over the old one, so a
+ * crash while saving leaves the previous save intact. Large saves are read through a
+ * memory map rather than copied into a buffer first.
+ */
+public class SaveGame {
+    private static final int MAGIC = 0x47534156; // "GSAV"
+    private static final int VERSION = 1;
+    private static final int MAP_THRESHOLD = 1 << 20; // Files at least this large are memory-mapped
+
+    private final long seed;
+    private final long tickNanos;
+    private final String playerName;
+    private final byte[] state;
+
+    private SaveGame(long seed, long tickNanos, String playerName, byte[] state) {
+        this.seed = seed;
+        this.tickNanos = tickNanos;
+        this.playerName = playerName;
+        this.state = state;
+    }
+
+    /**
+     * Copies the world's current state.
+     * @param playerName Name the run is entered on the leaderboard under
+     */
+    public static SaveGame of(GameWorld world, String playerName) {
+        return new SaveGame(world.getSeed(), world.getTickNanos(), playerName, world.snapshot());
+    }
+
+    /**
+     * @return A new world in exactly the saved state
+     * @throws IllegalArgumentException If the state does not fit this build, such as a game
+     *         played with different wave scripts
+     */
+    public GameWorld restore() {
+        GameWorld world = new GameWorld(seed, tickNanos);
+        world.restore(state);
+        return world;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public void write(Path file) throws IOException {
+        byte[] name = playerName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > 255) throw new IllegalArgumentException("Player name too long");
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 1 + 1 + 8 + 8 + 1 + name.length + 4 + state.length + 4);
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) GameWorld.STATE_VERSION);
+        buffer.putLong(seed);
+        buffer.putLong(tickNanos);
+        buffer.put((byte) name.length);
+        buffer.put(name);
+        buffer.putInt(state.length);
+        buffer.put(state);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Leaderboard.syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    public static SaveGame read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Save file too large: " + file);
+            if (size >= MAP_THRESHOLD) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // Reads the whole file
+                }
+                buffer.flip();
+            }
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC) throw new IOException("Not a save file: " + file);
+            int version = buffer.get() & 0xFF;
+            int stateVersion = buffer.get() & 0xFF;
+            if (version != VERSION || stateVersion != GameWorld.STATE_VERSION) {
+                throw new IOException("Unsupported save version " + version + "/" + stateVersion);
+            }
+            long seed = buffer.getLong();
+            long tickNanos = buffer.getLong();
+            byte[] name = new byte[buffer.get() & 0xFF];
+            buffer.get(name);
+            byte[] state = new byte[buffer.getInt()];
+            buffer.get(state);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().flip());
+            if (buffer.getInt() != (int) crc.getValue()) throw new IOException("Save file is corrupt: " + file);
+            return new SaveGame(seed, tickNanos, new String(name, StandardCharsets.UTF_8), state);
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException("Save file is truncated: " + file);
+        }
+    }
+}
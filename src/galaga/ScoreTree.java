@@ -0,0 +1,186 @@
+package galaga;
+
+import java.util.Arrays;
+
+/**
+ * Scores ordered best first, with subtree sizes so that inserting, finding the rank of a
+ * score and finding the entry at a rank all take O(log n). It is a treap kept in parallel
+ * arrays: node i's fields are at index i, and 0 stands for no node. Equal scores keep
+ * the order they were inserted in, so the earlier run ranks higher in listings.
+ * Not thread-safe; Leaderboard only touches it from its IO thread.
+ */
+public class ScoreTree {
+    private int[] left, right;  // Children, 0 for none
+    private int[] size;         // Nodes in the subtree rooted here
+    private int[] priority;     // Heap order that keeps the tree balanced on average
+    private int[] score;
+    private String[] name;
+    private int root = 0;
+    private int count = 0;
+    private int seed = 0x2545F491; // For priorities; any fixed value keeps layouts repeatable
+
+    public ScoreTree() {
+        this(1024);
+    }
+
+    /**
+     * @param capacity Entries to make room for up front; the tree grows past it as needed
+     */
+    public ScoreTree(int capacity) {
+        int slots = Math.max(2, capacity + 1); // Slot 0 is the empty node
+        left = new int[slots];
+        right = new int[slots];
+        size = new int[slots];
+        priority = new int[slots];
+        score = new int[slots];
+        name = new String[slots];
+    }
+
+    /**
+     * Adds an entry.
+     * @return Rank of the new entry, as rankOf(score) after adding it
+     */
+    public int insert(String name, int score) {
+        int node = ++count;
+        if (node == left.length) grow();
+        this.score[node] = score;
+        this.name[node] = name;
+        size[node] = 1;
+        left[node] = 0;
+        right[node] = 0;
+        seed ^= seed << 13; // xorshift32
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        priority[node] = seed;
+        root = insert(root, node);
+        return rankOf(score);
+    }
+
+    /**
+     * @return 1 plus the number of entries with a strictly higher score, so tied scores
+     *         share a rank and a score better than every entry ranks 1
+     */
+    public int rankOf(int score) {
+        int higher = 0;
+        int t = root;
+        while (t != 0) {
+            if (this.score[t] > score) {
+                higher += size[left[t]] + 1;
+                t = right[t];
+            } else {
+                t = left[t];
+            }
+        }
+        return higher + 1;
+    }
+
+    /**
+     * @param position 1 for the best entry, up to size()
+     * @return Score of the entry at that position in listing order
+     */
+    public int scoreAt(int position) {
+        return score[nodeAt(position)];
+    }
+
+    /**
+     * @param position 1 for the best entry, up to size()
+     * @return Name of the entry at that position in listing order
+     */
+    public String nameAt(int position) {
+        return name[nodeAt(position)];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Receives entries in listing order.
+     */
+    public interface Visitor {
+        void visit(String name, int score);
+    }
+
+    /**
+     * Visits every entry best first without recursion, so large trees cannot overflow the stack.
+     */
+    public void forEach(Visitor visitor) {
+        int[] stack = new int[64];
+        int depth = 0;
+        int t = root;
+        while (t != 0 || depth > 0) {
+            while (t != 0) {
+                if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                stack[depth++] = t;
+                t = left[t];
+            }
+            t = stack[--depth];
+            visitor.visit(name[t], score[t]);
+            t = right[t];
+        }
+    }
+
+    // True if node a is listed before node b; later nodes have higher indices
+    private boolean before(int a, int b) {
+        return score[a] > score[b] || (score[a] == score[b] && a < b);
+    }
+
+    private int insert(int t, int node) {
+        if (t == 0) return node;
+        if (before(node, t)) {
+            left[t] = insert(left[t], node);
+            if (priority[left[t]] > priority[t]) t = rotateRight(t);
+        } else {
+            right[t] = insert(right[t], node);
+            if (priority[right[t]] > priority[t]) t = rotateLeft(t);
+        }
+        size[t] = size[left[t]] + size[right[t]] + 1;
+        return t;
+    }
+
+    private int rotateRight(int t) {
+        int l = left[t];
+        left[t] = right[l];
+        right[l] = t;
+        size[t] = size[left[t]] + size[right[t]] + 1;
+        size[l] = size[left[l]] + size[right[l]] + 1;
+        return l;
+    }
+
+    private int rotateLeft(int t) {
+        int r = right[t];
+        right[t] = left[r];
+        left[r] = t;
+        size[t] = size[left[t]] + size[right[t]] + 1;
+        size[r] = size[left[r]] + size[right[r]] + 1;
+        return r;
+    }
+
+    private int nodeAt(int position) {
+        if (position < 1 || position > count) {
+            throw new IndexOutOfBoundsException("Position " + position + " of " + count);
+        }
+        int t = root;
+        while (true) {
+            int leftSize = size[left[t]];
+            if (position <= leftSize) {
+                t = left[t];
+            } else if (position == leftSize + 1) {
+                return t;
+            } else {
+                position -= leftSize + 1;
+                t = right[t];
+            }
+        }
+    }
+
+    private void grow() {
+        int slots = left.length * 2;
+        left = Arrays.copyOf(left, slots);
+        right = Arrays.copyOf(right, slots);
+        size = Arrays.copyOf(size, slots);
+        priority = Arrays.copyOf(priority, slots);
+        score = Arrays.copyOf(score, slots);
+        name = Arrays.copyOf(name, slots);
+    }
+}
@@ -0,0 +1,239 @@
+package galaga;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of WorldSnapshots for network play, as a delta against a baseline the
+ * receiver already holds. Each entity is written as a byte of changed-field bits followed
+ * by only the changed fields, as zigzag varint differences from the baseline, so an
+ * enemy that did not move costs one byte. Entities are matched by store index, and those
+ * past the end of the baseline's stores are compared against zeros.
+ *
+ * Encoding and decoding work through preallocated scratch arrays and reuse the target
+ * snapshot's stores; the only allocation is a new String when the message changes.
+ */
+public class SnapshotCodec {
+    private static final int HERO_FIELDS = 7, ENEMY_FIELDS = 7, PROJECTILE_FIELDS = 3;
+
+    // Header flag bits
+    private static final int GAME_OVER = 1, TWO_PLAYER = 2, MESSAGE = 4;
+
+    private final long[] fields = new long[8]; // One entity's values, current or decoded
+    private final long[] base = new long[8];   // The same entity's values in the baseline
+    private char[] text = new char[64];        // Message characters while decoding
+
+    /**
+     * Writes the difference between two snapshots.
+     * @param baseline Snapshot the receiver will decode against
+     * @param current Snapshot to send
+     * @param out Buffer to append to; overflows with a BufferOverflowException
+     */
+    public void encode(WorldSnapshot baseline, WorldSnapshot current, ByteBuffer out) {
+        boolean messageChanged = !current.message.equals(baseline.message);
+        out.put((byte) ((current.gameOver ? GAME_OVER : 0) | (current.twoPlayer ? TWO_PLAYER : 0)
+                | (messageChanged ? MESSAGE : 0)));
+        writeVarint(out, zigzag(current.lives - baseline.lives));
+        writeVarint(out, zigzag(current.wave - baseline.wave));
+        writeVarint(out, zigzag(current.score - baseline.score));
+        if (messageChanged) {
+            writeVarint(out, current.message.length());
+            for (int i = 0; i < current.message.length(); i++) writeVarint(out, current.message.charAt(i));
+        }
+
+        loadHero(baseline.hero, base);
+        loadHero(current.hero, fields);
+        writeEntity(out, HERO_FIELDS);
+        loadHero(baseline.partner, base);
+        loadHero(current.partner, fields);
+        writeEntity(out, HERO_FIELDS);
+
+        EnemyStore enemies = current.enemies;
+        writeVarint(out, enemies.size());
+        for (int i = 0; i < enemies.size(); i++) {
+            loadEnemy(baseline.enemies, i, base);
+            loadEnemy(enemies, i, fields);
+            writeEntity(out, ENEMY_FIELDS);
+        }
+        encodeProjectiles(baseline.lasers, current.lasers, out);
+        encodeProjectiles(baseline.enemyBullets, current.enemyBullets, out);
+    }
+
+    /**
+     * Reads a difference written by encode.
+     * @param baseline The snapshot it was encoded against
+     * @param in Buffer positioned at the encoded snapshot
+     * @param into Snapshot to fill; must not be the baseline
+     * @throws IllegalArgumentException if the data is not a valid snapshot
+     */
+    public void decode(WorldSnapshot baseline, ByteBuffer in, WorldSnapshot into) {
+        int flags = in.get();
+        into.gameOver = (flags & GAME_OVER) != 0;
+        into.twoPlayer = (flags & TWO_PLAYER) != 0;
+        into.lives = baseline.lives + (int) unzigzag(readVarint(in));
+        into.wave = baseline.wave + (int) unzigzag(readVarint(in));
+        into.score = baseline.score + (int) unzigzag(readVarint(in));
+        if ((flags & MESSAGE) != 0) {
+            int length = count(in);
+            if (text.length < length) text = new char[length];
+            for (int i = 0; i < length; i++) text[i] = (char) readVarint(in);
+            into.message = new String(text, 0, length);
+        } else {
+            into.message = baseline.message;
+        }
+
+        loadHero(baseline.hero, base);
+        readEntity(in, HERO_FIELDS);
+        storeHero(into.hero);
+        loadHero(baseline.partner, base);
+        readEntity(in, HERO_FIELDS);
+        storeHero(into.partner);
+
+        EnemyStore enemies = into.enemies;
+        enemies.clear();
+        int enemyCount = count(in);
+        for (int i = 0; i < enemyCount; i++) {
+            loadEnemy(baseline.enemies, i, base);
+            readEntity(in, ENEMY_FIELDS);
+            int typeVariant = (int) fields[0];
+            if (typeVariant < 0 || (typeVariant >> 4) >= EnemyFactory.ARCHETYPES.length) {
+                throw new IllegalArgumentException("Unknown enemy type");
+            }
+            EnemyArchetype archetype = EnemyFactory.ARCHETYPES[typeVariant >> 4];
+            if ((typeVariant & 15) >= archetype.variants()) throw new IllegalArgumentException("Unknown enemy variant");
+            if (fields[5] < 0 || fields[5] > archetype.health) throw new IllegalArgumentException("Bad enemy health");
+            if (!EnemyStore.isStage(fields[6])) throw new IllegalArgumentException("Unknown enemy stage");
+            int j = enemies.add(archetype, (int) fields[1], (int) fields[2], typeVariant & 15, 0);
+            enemies.prevX[j] = (int) (fields[1] + fields[3]);
+            enemies.prevY[j] = (int) (fields[2] + fields[4]);
+            enemies.health[j] = (int) fields[5];
+            enemies.stage[j] = (int) fields[6];
+        }
+        decodeProjectiles(baseline.lasers, in, into.lasers);
+        decodeProjectiles(baseline.enemyBullets, in, into.enemyBullets);
+    }
+
+    // Projectiles only move vertically by vy each tick, so the previous position is implied
+    private void encodeProjectiles(ProjectileStore baseline, ProjectileStore current, ByteBuffer out) {
+        writeVarint(out, current.size());
+        for (int i = 0; i < current.size(); i++) {
+            loadProjectile(baseline, i, base);
+            loadProjectile(current, i, fields);
+            writeEntity(out, PROJECTILE_FIELDS);
+        }
+    }
+
+    private void decodeProjectiles(ProjectileStore baseline, ByteBuffer in, ProjectileStore into) {
+        into.clear();
+        int size = count(in);
+        for (int i = 0; i < size; i++) {
+            loadProjectile(baseline, i, base);
+            readEntity(in, PROJECTILE_FIELDS);
+            into.add((int) fields[0], (int) fields[1], (int) fields[2]);
+            into.prevY[i] = (int) (fields[1] - fields[2]);
+        }
+    }
+
+    private static void loadHero(Hero hero, long[] values) {
+        values[0] = hero.x;
+        values[1] = hero.y;
+        values[2] = hero.prevX - hero.x;
+        values[3] = hero.prevY - hero.y;
+        values[4] = hero.hit ? 1 : 0;
+        values[5] = hero.hitTimer;
+        values[6] = hero.time;
+    }
+
+    private void storeHero(Hero hero) {
+        hero.x = (int) fields[0];
+        hero.y = (int) fields[1];
+        hero.prevX = (int) (fields[0] + fields[2]);
+        hero.prevY = (int) (fields[1] + fields[3]);
+        hero.hit = fields[4] != 0;
+        hero.hitTimer = fields[5];
+        hero.time = fields[6];
+    }
+
+    private static void loadEnemy(EnemyStore enemies, int i, long[] values) {
+        if (i >= enemies.size()) {
+            clear(values, ENEMY_FIELDS);
+            return;
+        }
+        values[0] = enemies.type[i].id << 4 | enemies.variant[i];
+        values[1] = enemies.x[i];
+        values[2] = enemies.y[i];
+        values[3] = enemies.prevX[i] - enemies.x[i];
+        values[4] = enemies.prevY[i] - enemies.y[i];
+        values[5] = enemies.health[i];
+        values[6] = enemies.stage[i];
+    }
+
+    private static void loadProjectile(ProjectileStore store, int i, long[] values) {
+        if (i >= store.size()) {
+            clear(values, PROJECTILE_FIELDS);
+            return;
+        }
+        values[0] = store.x[i];
+        values[1] = store.y[i];
+        values[2] = store.vy[i];
+    }
+
+    private static void clear(long[] values, int count) {
+        for (int f = 0; f < count; f++) values[f] = 0;
+    }
+
+    // Writes a bit per field that differs from the baseline, then those fields' differences
+    private void writeEntity(ByteBuffer out, int fieldCount) {
+        int changed = 0;
+        for (int f = 0; f < fieldCount; f++) {
+            if (fields[f] != base[f]) changed |= 1 << f;
+        }
+        out.put((byte) changed);
+        for (int f = 0; f < fieldCount; f++) {
+            if ((changed & 1 << f) != 0) writeVarint(out, zigzag(fields[f] - base[f]));
+        }
+    }
+
+    // Fills fields with the baseline plus whatever differences were written
+    private void readEntity(ByteBuffer in, int fieldCount) {
+        int changed = in.get() & 0xFF;
+        for (int f = 0; f < fieldCount; f++) {
+            fields[f] = (changed & 1 << f) != 0 ? base[f] + unzigzag(readVarint(in)) : base[f];
+        }
+    }
+
+    // A count of things that each take at least one byte, checked so bad data can't force a huge allocation
+    private static int count(ByteBuffer in) {
+        long count = readVarint(in);
+        if (count > in.remaining()) throw new IllegalArgumentException("Corrupt snapshot");
+        return (int) count;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes an unsigned value seven bits at a time, low bits first.
+     */
+    static void writeVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Corrupt snapshot");
+    }
+}
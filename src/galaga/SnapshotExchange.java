@@ -0,0 +1,48 @@
+package galaga;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Triple buffer passing WorldSnapshots from the simulation thread to the Swing thread.
+ * The writer fills its own back snapshot and swaps it into the shared middle slot; the
+ * reader swaps its front snapshot for the middle one when that is newer. Each side only
+ * ever touches the snapshot it holds, so neither blocks and a slow paint never holds up
+ * a tick.
+ */
+public class SnapshotExchange {
+    private final AtomicReference<WorldSnapshot> middle = new AtomicReference<>(new WorldSnapshot(true));
+    private WorldSnapshot back = new WorldSnapshot(true);  // Writer's
+    private WorldSnapshot front = new WorldSnapshot(true); // Reader's
+    private long sequence = 0; // Writer's count of publishes
+
+    /**
+     * @return The snapshot to fill before the next publish(). Writer only.
+     */
+    public WorldSnapshot back() {
+        return back;
+    }
+
+    /**
+     * Makes the filled back snapshot the latest one. Writer only.
+     */
+    public void publish() {
+        back.sequence = ++sequence;
+        back = middle.getAndSet(back);
+    }
+
+    /**
+     * Takes the newest published snapshot if there is one newer than the current. Reader only.
+     * @return The snapshot to draw, which stays untouched until the next call
+     */
+    public WorldSnapshot latest() {
+        if (middle.get().sequence > front.sequence) front = middle.getAndSet(front);
+        return front;
+    }
+
+    /**
+     * @return The snapshot returned by the last latest() call. Reader only.
+     */
+    public WorldSnapshot current() {
+        return front;
+    }
+}
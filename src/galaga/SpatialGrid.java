@@ -0,0 +1,181 @@
+package galaga;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid broadphase over the board. Boxes are inserted under an integer id into
+ * every cell they touch; queries only look at boxes in the cells they share.
+ * Rebuilding and querying reuse the same arrays, so a tick does not allocate.
+ */
+public class SpatialGrid {
+    private final int cellSize;
+    private final int columns, rows;
+    private final int[] head;  // First entry in each cell, -1 when empty
+    private final int[] tail;  // Last entry in each cell, so cells stay in ascending id order
+    private int[] next = new int[256];  // Next entry in the same cell, -1 at the end
+    private int[] ids = new int[256];   // Id stored in each entry
+    private int entries = 0;
+
+    // Box and removal flag per id
+    private int[] boxX = new int[64], boxY = new int[64], boxW = new int[64], boxH = new int[64];
+    private boolean[] removed = new boolean[64];
+    private CollisionMask[] masks = new CollisionMask[64]; // Narrow phase for firstOverlap, null for the box
+
+    private int[] stamps = new int[64]; // Last query that reported each id, for de-duplication
+    private int queryStamp = 0;
+    private int[] results = new int[64];
+
+    /**
+     * @param width Width of the covered area; boxes outside it fall into the border cells
+     * @param height Height of the covered area
+     * @param cellSize Side of a square cell, ideally a little larger than the common entity
+     */
+    public SpatialGrid(int width, int height, int cellSize) {
+        this.cellSize = cellSize;
+        this.columns = (width + cellSize - 1) / cellSize;
+        this.rows = (height + cellSize - 1) / cellSize;
+        this.head = new int[columns * rows];
+        this.tail = new int[columns * rows];
+        Arrays.fill(head, -1);
+    }
+
+    /**
+     * Removes every box so the grid can be rebuilt for the next tick.
+     */
+    public void clear() {
+        Arrays.fill(head, -1);
+        entries = 0;
+    }
+
+    /**
+     * Adds a box to every cell it touches. Ids must be inserted in ascending order
+     * after each clear(), which is what firstOverlap relies on.
+     * @param id Non-negative id reported back by queries, usually a list index
+     */
+    public void insert(int id, int x, int y, int w, int h) {
+        insert(id, x, y, w, h, null);
+    }
+
+    /**
+     * Adds a box whose firstOverlap hits are refined by a mask of the same size.
+     * @param mask Solid pixels of the box, or null to count the whole box
+     */
+    public void insert(int id, int x, int y, int w, int h, CollisionMask mask) {
+        if (id >= boxX.length) growIds(id + 1);
+        boxX[id] = x;
+        boxY[id] = y;
+        boxW[id] = w;
+        boxH[id] = h;
+        masks[id] = mask;
+        removed[id] = false;
+
+        int c0 = column(x), c1 = column(x + w - 1);
+        int r0 = row(y), r1 = row(y + h - 1);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                if (entries == ids.length) {
+                    ids = Arrays.copyOf(ids, entries * 2);
+                    next = Arrays.copyOf(next, entries * 2);
+                }
+                int cell = r * columns + c;
+                ids[entries] = id;
+                next[entries] = -1;
+                if (head[cell] == -1) head[cell] = entries;
+                else next[tail[cell]] = entries;
+                tail[cell] = entries++;
+            }
+        }
+    }
+
+    /**
+     * Marks a box as gone for the rest of this tick; queries skip it from now on.
+     */
+    public void remove(int id) {
+        removed[id] = true;
+    }
+
+    public boolean isRemoved(int id) {
+        return removed[id];
+    }
+
+    /**
+     * Finds the lowest live id whose box overlaps the given box, and whose mask does too
+     * if it was inserted with one. That is the box an in-order scan of the whole list
+     * would have found first.
+     * @return The id, or -1 if nothing overlaps
+     */
+    public int firstOverlap(int x, int y, int w, int h) {
+        int best = -1;
+        int c0 = column(x), c1 = column(x + w - 1);
+        int r0 = row(y), r1 = row(y + h - 1);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                for (int e = head[r * columns + c]; e != -1; e = next[e]) {
+                    int id = ids[e];
+                    if (best != -1 && id >= best) break; // Cells are sorted, nothing lower follows
+                    if (!removed[id] && Collision.overlaps(boxX[id], boxY[id], boxW[id], boxH[id], x, y, w, h)
+                            && (masks[id] == null || masks[id].overlapsBox(boxX[id], boxY[id], x, y, w, h))) {
+                        best = id;
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Collects the live ids of every box sharing a cell with the given box, each once.
+     * Candidates still need an exact overlap test.
+     * @return Number of candidates, readable through result(i)
+     */
+    public int query(int x, int y, int w, int h) {
+        if (++queryStamp == 0) { // Wrapped around; forget all old stamps
+            Arrays.fill(stamps, 0);
+            queryStamp = 1;
+        }
+        int count = 0;
+        int c0 = column(x), c1 = column(x + w - 1);
+        int r0 = row(y), r1 = row(y + h - 1);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                for (int e = head[r * columns + c]; e != -1; e = next[e]) {
+                    int id = ids[e];
+                    if (removed[id] || stamps[id] == queryStamp) continue;
+                    stamps[id] = queryStamp;
+                    if (count == results.length) results = Arrays.copyOf(results, count * 2);
+                    results[count++] = id;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param i Index below the count returned by the last query
+     * @return Id of the i-th candidate from the last query
+     */
+    public int result(int i) {
+        return results[i];
+    }
+
+    private void growIds(int minimum) {
+        int size = Math.max(minimum, boxX.length * 2);
+        boxX = Arrays.copyOf(boxX, size);
+        boxY = Arrays.copyOf(boxY, size);
+        boxW = Arrays.copyOf(boxW, size);
+        boxH = Arrays.copyOf(boxH, size);
+        removed = Arrays.copyOf(removed, size);
+        masks = Arrays.copyOf(masks, size);
+        stamps = Arrays.copyOf(stamps, size);
+    }
+
+    // Cells are clamped so boxes partly or fully off the board still land in a border cell
+    private int column(int x) {
+        return Math.min(columns - 1, Math.max(0, Math.floorDiv(x, cellSize)));
+    }
+
+    private int row(int y) {
+        return Math.min(rows - 1, Math.max(0, Math.floorDiv(y, cellSize)));
+    }
+}
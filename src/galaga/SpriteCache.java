@@ -0,0 +1,153 @@
+package galaga;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shared registry of sprite images. Each file is decoded once, and each requested size
+ * is scaled once into an image compatible with the screen, so every entity using the
+ * same sprite shares a single reference. AssetLoader fills it ahead of time, from the
+ * asset bundle where it can; anything not loaded that way is decoded on first use.
+ */
+public class SpriteCache {
+    private static final Map<String, BufferedImage> sources = new HashMap<>(); // Decoded files
+    private static final Map<String, BufferedImage> scaled = new HashMap<>();  // Keyed by file@WxH
+    private static final Map<String, Boolean> missing = new HashMap<>();       // Files that failed to load
+    private static final Map<String, CollisionMask> masks = new HashMap<>();   // Keyed like scaled
+
+    private SpriteCache() {}
+
+    /**
+     * Gets a sprite scaled to the given size, loading and scaling it on first use.
+     * @param file Path of the image, e.g. "Sprites/Galaga.png"
+     * @param width Width to scale to
+     * @param height Height to scale to
+     * @return The shared scaled image, or null if the file could not be loaded
+     */
+    public static synchronized BufferedImage get(String file, int width, int height) {
+        String key = file + "@" + width + "x" + height;
+        BufferedImage image = scaled.get(key);
+        if (image != null) return image;
+
+        BufferedImage source = load(file);
+        if (source == null) return null;
+
+        image = scale(source, width, height);
+        scaled.put(key, image);
+        return image;
+    }
+
+    /**
+     * Gets the collision mask of a sprite at the given size, built on first use.
+     * @return The shared mask, or null if the file could not be loaded
+     */
+    public static synchronized CollisionMask getMask(String file, int width, int height) {
+        String key = file + "@" + width + "x" + height;
+        CollisionMask mask = masks.get(key);
+        if (mask != null) return mask;
+
+        BufferedImage image = get(file, width, height);
+        if (image == null) return null;
+
+        mask = CollisionMask.of(image);
+        masks.put(key, mask);
+        return mask;
+    }
+
+    /**
+     * Adds a sprite loaded elsewhere, along with its mask if it has one.
+     */
+    static synchronized void put(String file, int width, int height, BufferedImage image, CollisionMask mask) {
+        String key = file + "@" + width + "x" + height;
+        scaled.put(key, image);
+        if (mask != null) masks.put(key, mask);
+    }
+
+    /**
+     * Records a file as missing, so using it draws the fallback without another attempt.
+     */
+    static synchronized void markMissing(String file) {
+        missing.put(file, Boolean.TRUE);
+    }
+
+    /**
+     * Decodes and scales a file without touching the cache, so several can be decoded at once.
+     * @return The scaled image, or null if the file could not be loaded
+     */
+    static BufferedImage decode(String file, int width, int height) {
+        try {
+            BufferedImage source = ImageIO.read(new File(file));
+            return source == null ? null : scale(source, width, height);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Decodes a file once; failures are reported once and remembered
+    private static BufferedImage load(String file) {
+        BufferedImage source = sources.get(file);
+        if (source != null || missing.containsKey(file)) return source;
+        try {
+            source = ImageIO.read(new File(file));
+        } catch (IOException e) {
+            source = null;
+        }
+        if (source == null) {
+            System.err.println("Image not found! " + file);
+            missing.put(file, Boolean.TRUE);
+        } else {
+            sources.put(file, source);
+        }
+        return source;
+    }
+
+    // Scales by repeated halving with bilinear filtering, which is close to SCALE_SMOOTH quality
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        Image current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage step = createImage(w, h);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = step;
+        } while (w != width || h != height);
+        return (BufferedImage) current;
+    }
+
+    /**
+     * @return The image itself when it already has the layout createImage gives, otherwise
+     *         a copy in that layout
+     */
+    static BufferedImage compatible(BufferedImage image) {
+        if (GraphicsEnvironment.isHeadless()) return image; // createImage gives plain ARGB
+        BufferedImage copy = createImage(image.getWidth(), image.getHeight());
+        Graphics2D g = copy.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+
+    /**
+     * Creates a transparent image in the screen's pixel layout when there is one, so
+     * drawing it needs no conversion.
+     */
+    static BufferedImage createImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+}
@@ -0,0 +1,109 @@
+package galaga;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Scrolling background of stars in three parallax layers, far stars dim and slow and
+ * near ones bright and fast, with some twinkling. Star positions are a function of time,
+ * so nothing is stepped between frames. Each frame erases the pixels the stars last
+ * covered in an opaque raster, writes their new ones, and blits the raster with a single
+ * drawImage, which replaces the plain black background.
+ */
+public class Starfield {
+    private static final int[] LAYER_STARS = {110, 70, 40};
+    private static final float[] LAYER_SPEED = {12, 30, 70};       // Pixels per second, downward
+    private static final int[] LAYER_BRIGHTNESS = {0x60, 0xA0, 0xFF};
+    private static final int[] TINTS = {0xFFFFFF, 0xFFFF80, 0x80C0FF, 0xFF8080, 0x80FF80};
+    private static final long TWINKLE_NANOS = 600_000_000L;        // Blink period of twinkling stars
+
+    private final int width, height;
+    private final BufferedImage raster;
+    private final int[] pixels;
+
+    // One entry per star
+    private final int[] x;
+    private final float[] startY;
+    private final float[] speed;
+    private final int[] color;
+    private final int[] twinkle;   // Offset into the blink period, or -1 for steady stars
+    private final int[] tall;      // 2 for near stars, drawn two pixels high, else 1
+    private final int[] drawnAt;   // Pixel index of each star's top pixel last frame, or -1
+
+    private long drawnNanos = Long.MIN_VALUE; // Time the raster shows, so clipped repaints reuse it
+
+    public Starfield(int width, int height, long seed) {
+        this.width = width;
+        this.height = height;
+        raster = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB); // Starts black
+        pixels = ((DataBufferInt) raster.getRaster().getDataBuffer()).getData();
+
+        int count = 0;
+        for (int stars : LAYER_STARS) count += stars;
+        x = new int[count];
+        startY = new float[count];
+        speed = new float[count];
+        color = new int[count];
+        twinkle = new int[count];
+        tall = new int[count];
+        drawnAt = new int[count];
+
+        GameRandom rand = new GameRandom(seed);
+        int i = 0;
+        for (int layer = 0; layer < LAYER_STARS.length; layer++) {
+            int brightness = LAYER_BRIGHTNESS[layer];
+            for (int n = 0; n < LAYER_STARS[layer]; n++, i++) {
+                x[i] = rand.nextInt(width);
+                startY[i] = rand.nextInt(height);
+                speed[i] = LAYER_SPEED[layer] * (0.8f + rand.nextInt(41) / 100f);
+                int tint = TINTS[rand.nextInt(TINTS.length)];
+                color[i] = ((tint >> 16 & 0xFF) * brightness / 255) << 16
+                        | ((tint >> 8 & 0xFF) * brightness / 255) << 8 | (tint & 0xFF) * brightness / 255;
+                twinkle[i] = rand.nextInt(3) == 0 ? rand.nextInt((int) (TWINKLE_NANOS / 1_000_000)) : -1;
+                tall[i] = layer == LAYER_STARS.length - 1 ? 2 : 1;
+                drawnAt[i] = -1;
+            }
+        }
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    /**
+     * Fills the whole area with the starfield as it is at the given time.
+     * @param nanos Any steadily increasing clock, such as System.nanoTime(); a fixed
+     *              value draws a still field
+     */
+    public void draw(Graphics g, long nanos) {
+        if (nanos != drawnNanos) rasterize(nanos);
+        g.drawImage(raster, 0, 0, null);
+    }
+
+    private void rasterize(long nanos) {
+        // Everything is erased before anything is written, so a star never clears another
+        for (int i = 0; i < x.length; i++) {
+            int at = drawnAt[i];
+            if (at < 0) continue;
+            pixels[at] = 0;
+            if (tall[i] == 2) pixels[at + width] = 0;
+        }
+
+        double seconds = Math.floorMod(nanos, 3_600_000_000_000L) / 1e9; // Bounded, so float positions stay precise
+        long periodMillis = TWINKLE_NANOS / 1_000_000;
+        long twinkleMillis = Math.floorMod(nanos / 1_000_000, periodMillis);
+        for (int i = 0; i < x.length; i++) {
+            if (twinkle[i] >= 0 && (twinkleMillis + twinkle[i]) % periodMillis >= periodMillis / 2) {
+                drawnAt[i] = -1; // Off for the second half of its blink
+                continue;
+            }
+            int y = (int) ((startY[i] + speed[i] * seconds) % (height - 1)); // Room for tall stars
+            int at = y * width + x[i];
+            pixels[at] = color[i];
+            if (tall[i] == 2) pixels[at + width] = color[i];
+            drawnAt[i] = at;
+        }
+        drawnNanos = nanos;
+    }
+}
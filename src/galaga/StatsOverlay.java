@@ -0,0 +1,114 @@
+package galaga;
+
+import java.awt.*;
+
+/**
+ * Heads-up display of the numbers recorded by FrameStats: averages over the last second
+ * of frames and a bar graph of recent frame times. Toggled with F3.
+ */
+public class StatsOverlay {
+    private static final int GRAPH_FRAMES = 240;  // Bars in the frame-time graph
+    private static final int GRAPH_HEIGHT = 60;   // Pixels for GRAPH_SCALE_MS
+    private static final double GRAPH_SCALE_MS = 33.3;
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+    private static final Color UPDATE_COLOR = new Color(80, 160, 255);
+    private static final Color RENDER_COLOR = new Color(255, 170, 60);
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    private static final int LINE_HEIGHT = 13;
+    private static final int LINES = 8; // Rows of text draw() shows
+
+    private final FrameStats stats;
+    private boolean visible = false;
+
+    public StatsOverlay(FrameStats stats) {
+        this.stats = stats;
+    }
+
+    public void toggle() {
+        visible = !visible;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Draws the overlay in the bottom-left corner if it is visible.
+     */
+    public void draw(Graphics g) {
+        if (!visible) return;
+        long end = stats.frames();
+        if (end == 0) return;
+        int frames = (int) Math.min(Math.min(end, 60), FrameStats.CAPACITY);
+
+        long update = 0, collision = 0, render = 0, worstLatency = 0, allocated = 0, gc = 0;
+        int ticks = 0;
+        for (long f = end - frames; f < end; f++) {
+            int s = stats.slot(f);
+            ticks += stats.ticks[s];
+            update += stats.updateNanos[s];
+            collision += stats.collisionNanos[s];
+            render += stats.renderNanos[s];
+            worstLatency = Math.max(worstLatency, stats.latencyNanos[s]);
+            allocated += stats.allocatedBytes[s];
+            gc += stats.gcMillis[s];
+        }
+        int newest = stats.slot(end - 1);
+        int oldest = stats.slot(end - frames);
+        double seconds = Math.max(1e-9, (stats.timestamps[newest] - stats.timestamps[oldest]) / 1e9);
+        int perTick = Math.max(1, ticks);
+
+        String[] lines = {
+                String.format("update    %6.2f ms/tick", update / 1e6 / perTick),
+                String.format("collision %6.2f ms/tick", collision / 1e6 / perTick),
+                String.format("render    %6.2f ms/frame", render / 1e6 / frames),
+                String.format("latency   %6.2f ms worst", worstLatency / 1e6),
+                String.format("enemies   %d swoop %d shoot %d capture",
+                        stats.swooping[newest], stats.shooting[newest], stats.capturing[newest]),
+                String.format("shots     %d lasers %d bullets", stats.lasers[newest], stats.bullets[newest]),
+                String.format("alloc     %6.2f MB/s", allocated / 1e6 / seconds),
+                String.format("gc        %d ms in %d frames", gc, frames),
+        };
+
+        int x = 10;
+        int graphTop = PlayGame.BOARD_HEIGHT - 10 - GRAPH_HEIGHT;
+        int textTop = graphTop - 6 - lines.length * LINE_HEIGHT;
+        g.setColor(BACKGROUND);
+        g.fillRect(x - 4, textTop - 4, GRAPH_FRAMES + 8, PlayGame.BOARD_HEIGHT - textTop);
+
+        g.setFont(FONT);
+        g.setColor(Color.WHITE);
+        for (int i = 0; i < lines.length; i++) {
+            g.drawString(lines[i], x, textTop + (i + 1) * LINE_HEIGHT - 3);
+        }
+
+        // One bar per frame: update and collision stacked under render
+        int bars = (int) Math.min(end, GRAPH_FRAMES);
+        int bottom = graphTop + GRAPH_HEIGHT;
+        for (int i = 0; i < bars; i++) {
+            int s = stats.slot(end - bars + i);
+            int updateHeight = barHeight(stats.updateNanos[s] + stats.collisionNanos[s]);
+            int renderHeight = barHeight(stats.renderNanos[s]);
+            g.setColor(UPDATE_COLOR);
+            g.fillRect(x + i, bottom - updateHeight, 1, updateHeight);
+            g.setColor(RENDER_COLOR);
+            g.fillRect(x + i, bottom - updateHeight - renderHeight, 1, renderHeight);
+        }
+        g.setColor(Color.GRAY);
+        int target = bottom - barHeight(16_666_667L); // 60 Hz budget
+        g.drawLine(x, target, x + GRAPH_FRAMES, target);
+    }
+
+    /**
+     * Reports the area draw() covers if the overlay is visible; it changes every frame.
+     */
+    public void addDamage(DamageRegion damage) {
+        if (!visible) return;
+        int top = PlayGame.BOARD_HEIGHT - 10 - GRAPH_HEIGHT - 6 - LINES * LINE_HEIGHT - 4;
+        damage.add(6, top, GRAPH_FRAMES + 8, PlayGame.BOARD_HEIGHT - top);
+    }
+
+    private int barHeight(long nanos) {
+        return (int) Math.min(GRAPH_HEIGHT, nanos / 1e6 / GRAPH_SCALE_MS * GRAPH_HEIGHT);
+    }
+}
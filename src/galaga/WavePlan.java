@@ -0,0 +1,279 @@
+package galaga;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The waves of a game, read from a wave script and checked once up front, so a mistake
+ * in the script stops the game at startup instead of silently dropping enemies. The
+ * compiled plan is immutable and shared by every world playing it. Each wave is a list
+ * of spawns sorted by time, which GameWorld releases as the wave's clock passes them;
+ * past the last wave, the last one repeats.
+ *
+ * Script format, one statement per line, # starts a comment:
+ *   path NAME x,y x,y ...   An entry path: cubic Bezier points as for AttackPath.compile,
+ *                           relative to the slot it ends on, so the last point is 0,0
+ *   wave [NAME]             Starts the next wave
+ *   MS TYPE x=X y=Y [count=N step=DX,DY] [every=MS] [entry=PATH] [mirror]
+ *                           Spawns N enemies of an archetype MS after the wave starts,
+ *                           one every MS apart, each slot STEP from the one before. They
+ *                           fly in along the entry path, mirrored left to right if asked,
+ *                           or appear in place without one.
+ */
+public class WavePlan {
+    public static final Path DEFAULT_FILE = Path.of("Waves", "waves.txt");
+    private static final int MAX_PATHS = 250; // Path ids are saved in a byte beside the built-in paths
+
+    /**
+     * One enemy of a wave.
+     * @param time Milliseconds after the wave starts
+     * @param x Left of its slot in formation
+     * @param y Top of its slot in formation
+     * @param entry Index into paths(), or -1 to appear in place
+     * @param mirrored Flies the entry path mirrored left to right
+     */
+    public record Spawn(int time, EnemyArchetype type, int x, int y, int entry, boolean mirrored) {}
+
+    /**
+     * @param spawns In time order
+     */
+    public record Wave(String name, List<Spawn> spawns) {}
+
+    private final String name;
+    private final List<Wave> waves;
+    private final List<AttackPath> paths;
+    private final int fingerprint;
+
+    private WavePlan(String name, List<Wave> waves, List<AttackPath> paths, int fingerprint) {
+        this.name = name;
+        this.waves = List.copyOf(waves);
+        this.paths = List.copyOf(paths);
+        this.fingerprint = fingerprint;
+    }
+
+    private static WavePlan standard; // Read on first use
+
+    /**
+     * @return The game's waves, read once from Waves/waves.txt or -Dgalaga.waves
+     * @throws UncheckedIOException If the script is missing or invalid
+     */
+    public static synchronized WavePlan standard() {
+        if (standard == null) {
+            try {
+                standard = read(Path.of(System.getProperty("galaga.waves", DEFAULT_FILE.toString())));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return standard;
+    }
+
+    /**
+     * Reads and compiles a wave script.
+     * @throws IOException If the file cannot be read or any line is invalid, naming the line
+     */
+    public static WavePlan read(Path file) throws IOException {
+        if (!Files.exists(file)) throw new IOException("No wave script at " + file);
+        return compile(file.getFileName().toString(), Files.readAllLines(file));
+    }
+
+    private static WavePlan compile(String source, List<String> lines) throws IOException {
+        Map<String, Integer> pathIds = new HashMap<>();
+        List<AttackPath> paths = new ArrayList<>();
+        List<int[]> pathPoints = new ArrayList<>();
+        List<Wave> waves = new ArrayList<>();
+        String waveName = null;
+        List<Spawn> spawns = null;
+
+        for (int n = 1; n <= lines.size(); n++) {
+            String line = lines.get(n - 1);
+            int comment = line.indexOf('#');
+            if (comment >= 0) line = line.substring(0, comment);
+            String[] words = line.trim().split("\\s+");
+            if (words[0].isEmpty()) continue;
+            String where = source + ":" + n + ": ";
+            try {
+                switch (words[0]) {
+                    case "path" -> {
+                        if (words.length < 6) throw new IllegalArgumentException("a path needs a name and at least four points");
+                        if (pathIds.containsKey(words[1])) throw new IllegalArgumentException("path " + words[1] + " is defined twice");
+                        if (paths.size() == MAX_PATHS) throw new IllegalArgumentException("more than " + MAX_PATHS + " paths");
+                        int[] points = new int[(words.length - 2) * 2];
+                        for (int i = 2; i < words.length; i++) {
+                            int[] point = pair(words[i]);
+                            points[(i - 2) * 2] = point[0];
+                            points[(i - 2) * 2 + 1] = point[1];
+                        }
+                        if (points[points.length - 2] != 0 || points[points.length - 1] != 0) {
+                            throw new IllegalArgumentException("path " + words[1] + " must end at 0,0, the enemy's slot");
+                        }
+                        pathIds.put(words[1], paths.size());
+                        pathPoints.add(points);
+                        paths.add(AttackPath.compile(reverse(points))); // Entering flies it from the end back to the slot
+                    }
+                    case "wave" -> {
+                        if (spawns != null) waves.add(finish(waveName, spawns));
+                        waveName = words.length > 1 ? line.trim().substring(4).trim() : "Wave " + (waves.size() + 1);
+                        spawns = new ArrayList<>();
+                    }
+                    default -> {
+                        if (spawns == null) throw new IllegalArgumentException("spawns must follow a wave line");
+                        spawnLine(words, pathIds, spawns);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException(where + e.getMessage());
+            }
+        }
+        if (spawns != null) waves.add(finish(waveName, spawns));
+        if (waves.isEmpty()) throw new IOException(source + ": no waves");
+        for (Wave wave : waves) {
+            if (wave.spawns().isEmpty()) throw new IOException(source + ": " + wave.name() + " has no enemies");
+        }
+        return new WavePlan(source, waves, paths, fingerprint(waves, pathPoints));
+    }
+
+    // Expands one spawn line into its enemies, checking every slot is on the board
+    private static void spawnLine(String[] words, Map<String, Integer> pathIds, List<Spawn> spawns) {
+        int time = number(words[0], "time");
+        if (time < 0) throw new IllegalArgumentException("time " + time + " is negative");
+        if (words.length < 2) throw new IllegalArgumentException("missing enemy type");
+        EnemyArchetype type = EnemyFactory.archetype(words[1]);
+        Integer x = null, y = null;
+        int count = 1, every = 0, entry = -1;
+        int[] step = null;
+        boolean mirrored = false;
+        for (int i = 2; i < words.length; i++) {
+            String word = words[i];
+            if (word.equals("mirror")) {
+                mirrored = true;
+                continue;
+            }
+            int eq = word.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("expected key=value, found " + word);
+            String key = word.substring(0, eq), value = word.substring(eq + 1);
+            switch (key) {
+                case "x" -> x = number(value, "x");
+                case "y" -> y = number(value, "y");
+                case "count" -> count = number(value, "count");
+                case "step" -> step = pair(value);
+                case "every" -> every = number(value, "every");
+                case "entry" -> {
+                    Integer id = pathIds.get(value);
+                    if (id == null) throw new IllegalArgumentException("unknown path " + value);
+                    entry = id;
+                }
+                default -> throw new IllegalArgumentException("unknown setting " + key);
+            }
+        }
+        if (x == null || y == null) throw new IllegalArgumentException("x and y are required");
+        if (count < 1) throw new IllegalArgumentException("count must be at least 1");
+        if (count > 1 && step == null) throw new IllegalArgumentException("count needs a step between slots");
+        if (every < 0) throw new IllegalArgumentException("every must not be negative");
+
+        for (int k = 0; k < count; k++) {
+            int slotX = x + (step == null ? 0 : k * step[0]), slotY = y + (step == null ? 0 : k * step[1]);
+            if (slotX < 0 || slotX > GameWorld.BOARD_WIDTH - EnemyStore.SIZE
+                    || slotY < 0 || slotY > GameWorld.BOARD_HEIGHT - EnemyStore.SIZE) {
+                throw new IllegalArgumentException("slot " + (k + 1) + " at " + slotX + "," + slotY + " is off the board");
+            }
+            spawns.add(new Spawn(time + k * every, type, slotX, slotY, entry, mirrored));
+        }
+    }
+
+    private static Wave finish(String name, List<Spawn> spawns) {
+        spawns.sort(Comparator.comparingInt(Spawn::time)); // Stable, so equal times keep script order
+        return new Wave(name, List.copyOf(spawns));
+    }
+
+    private static int number(String value, String what) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(what + " is not a whole number: " + value);
+        }
+    }
+
+    private static int[] pair(String value) {
+        int comma = value.indexOf(',');
+        if (comma < 0) throw new IllegalArgumentException("expected x,y, found " + value);
+        return new int[]{number(value.substring(0, comma), "x"), number(value.substring(comma + 1), "y")};
+    }
+
+    // Reverses the order of x, y pairs; a Bezier chain reversed is the same curve flown backward
+    private static int[] reverse(int[] points) {
+        int[] reversed = new int[points.length];
+        for (int i = 0; i < points.length; i += 2) {
+            reversed[points.length - 2 - i] = points[i];
+            reversed[points.length - 1 - i] = points[i + 1];
+        }
+        return reversed;
+    }
+
+    // Checksum of everything that affects play, so comments and spacing can change freely
+    private static int fingerprint(List<Wave> waves, List<int[]> pathPoints) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (int[] points : pathPoints) {
+                out.writeInt(points.length);
+                for (int p : points) out.writeInt(p);
+            }
+            for (Wave wave : waves) {
+                out.writeInt(wave.spawns().size());
+                for (Spawn spawn : wave.spawns()) {
+                    out.writeInt(spawn.time());
+                    out.writeByte(spawn.type().id);
+                    out.writeInt(spawn.x());
+                    out.writeInt(spawn.y());
+                    out.writeInt(spawn.entry());
+                    out.writeBoolean(spawn.mirrored());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Cannot happen for an in-memory stream
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * @param number Wave number from 1; numbers past the last wave get the last wave
+     */
+    public Wave wave(int number) {
+        return waves.get(Math.min(number, waves.size()) - 1);
+    }
+
+    public int size() {
+        return waves.size();
+    }
+
+    /**
+     * @return Compiled entry paths, by the index a Spawn refers to them with
+     */
+    public List<AttackPath> paths() {
+        return paths;
+    }
+
+    /**
+     * @return Checksum of the plan's waves and paths, saved with the game state so a game
+     *         is never resumed under different waves
+     */
+    public int fingerprint() {
+        return fingerprint;
+    }
+
+    public String name() {
+        return name;
+    }
+}
@@ -0,0 +1,74 @@
+package galaga;
+
+/**
+ * Everything a frame draws, copied out of the GameWorld at the end of a simulation step
+ * so the Swing thread can paint it while the next ticks run. Snapshots are reused through
+ * a SnapshotExchange; copying only fills arrays that already exist once they have grown
+ * to the largest wave seen. Only snapshots that are drawn carry particles; those kept for
+ * the network leave them out, as SnapshotCodec never sends them.
+ */
+public class WorldSnapshot {
+    final Hero hero = new Hero(375, 500);
+    final Hero partner = new Hero(475, 500); // Second player's ship, drawn when twoPlayer is set
+    boolean twoPlayer;
+    final EnemyStore enemies = new EnemyStore(64);
+    final ProjectileStore lasers = Laser.createStore();
+    final ProjectileStore enemyBullets = EnemyBullet.createStore();
+    final ParticleStore particles; // Null unless the snapshot is drawn
+    int lives, wave, score;
+    String message = "";
+    boolean gameOver;
+    double alpha = 1.0; // Interpolation factor between the previous and current tick
+    long tickEnd;       // nanoTime when the latest tick finished, for tick-to-present latency
+    long sequence;      // Increases with every publish, so readers can tell a newer snapshot
+
+    /**
+     * @param drawn Whether the snapshot is painted, and so copies the world's particles
+     */
+    public WorldSnapshot(boolean drawn) {
+        particles = drawn ? new ParticleStore(GameWorld.MAX_PARTICLES) : null;
+    }
+
+    /**
+     * Copies the drawable state of a world.
+     */
+    public void copyFrom(GameWorld world) {
+        hero.copyFrom(world.getHero());
+        twoPlayer = world.getPartner() != null;
+        if (twoPlayer) partner.copyFrom(world.getPartner());
+        enemies.copyFrom(world.getEnemies());
+        lasers.clear();
+        lasers.addAll(world.getLasers());
+        enemyBullets.clear();
+        enemyBullets.addAll(world.getEnemyBullets());
+        if (particles != null) particles.copyFrom(world.getParticles());
+        lives = world.getLives();
+        wave = world.getWave();
+        score = world.getScore();
+        message = world.getMessage();
+        gameOver = world.isGameOver();
+    }
+
+    /**
+     * Copies the drawable state of another snapshot, as received over the network.
+     */
+    public void copyFrom(WorldSnapshot other) {
+        hero.copyFrom(other.hero);
+        twoPlayer = other.twoPlayer;
+        partner.copyFrom(other.partner);
+        enemies.copyFrom(other.enemies);
+        lasers.clear();
+        lasers.addAll(other.lasers);
+        enemyBullets.clear();
+        enemyBullets.addAll(other.enemyBullets);
+        if (particles != null) {
+            if (other.particles != null) particles.copyFrom(other.particles);
+            else particles.clear(); // Snapshots from the network carry none
+        }
+        lives = other.lives;
+        wave = other.wave;
+        score = other.score;
+        message = other.message;
+        gameOver = other.gameOver;
+    }
+}
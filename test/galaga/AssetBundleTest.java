@@ -0,0 +1,36 @@
+package galaga;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Every sprite in a freshly packed asset bundle matches decoding its file.
+ */
+class AssetBundleTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void bundledSpritesMatchDecoding() throws Exception {
+        Path file = dir.resolve("sprites.bundle");
+        List<AssetBundle.Sprite> sprites = AssetLoader.gameSprites();
+        AssetBundle.write(file, sprites);
+        AssetBundle bundle = AssetBundle.open(file);
+
+        for (AssetBundle.Sprite sprite : sprites) {
+            BufferedImage packed = bundle.read(sprite);
+            BufferedImage decoded = SpriteCache.decode(sprite.file(), sprite.width(), sprite.height());
+            assertNotNull(packed, "bundled " + sprite.file());
+            assertNotNull(decoded, "decoded " + sprite.file());
+            int w = sprite.width(), h = sprite.height();
+            assertArrayEquals(decoded.getRGB(0, 0, w, h, null, 0, w), packed.getRGB(0, 0, w, h, null, 0, w), sprite.file());
+        }
+    }
+}
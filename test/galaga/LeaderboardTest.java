@@ -0,0 +1,78 @@
+package galaga;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ScoreTree ranks and listings agree with a sorted array, and a leaderboard on disk
+ * reopens to the same ranks and top entries after its log has been compacted.
+ */
+class LeaderboardTest {
+    private static final int RUNS = 10_500; // Past the log's first compaction
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void scoreTreeMatchesSortedScores() {
+        int entries = 20_000;
+        GameRandom rand = new GameRandom(12);
+        int[] values = scores(rand, entries);
+        ScoreTree tree = new ScoreTree();
+        for (int i = 0; i < entries; i++) tree.insert("P" + (i % 1000), values[i]);
+
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        assertEquals(entries, tree.size());
+        for (int q = 0; q < 1000; q++) {
+            int score = rand.nextInt(-50, 10_050);
+            assertEquals(entries - upperBound(sorted, score) + 1, tree.rankOf(score), "rank of " + score);
+            int position = rand.nextInt(1, entries + 1);
+            assertEquals(sorted[entries - position], tree.scoreAt(position), "score at " + position);
+        }
+    }
+
+    @Test
+    void reopenedBoardKeepsEveryRun() throws Exception {
+        int[] values = scores(new GameRandom(12), RUNS);
+        Leaderboard board = new Leaderboard(dir);
+        for (int value : values) board.submit("AAA", value);
+        assertEquals(RUNS, board.size().get());
+        int rank = board.rankOf(5_000).get();
+        List<Leaderboard.Entry> top = board.top(3).get();
+        board.close();
+
+        Leaderboard reopened = new Leaderboard(dir);
+        try {
+            assertEquals(RUNS, reopened.size().get());
+            assertEquals(rank, reopened.rankOf(5_000).get());
+            assertEquals(top, reopened.top(3).get());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    // Scores come in steps of 50
+    private static int[] scores(GameRandom rand, int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) values[i] = rand.nextInt(200) * 50;
+        return values;
+    }
+
+    // Index of the first value greater than score
+    private static int upperBound(int[] sorted, int score) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= score) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
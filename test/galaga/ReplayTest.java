@@ -0,0 +1,124 @@
+package galaga;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Playback of a saved and loaded recording is deterministic: it ends in the recorded
+ * state every time, and seeking to any tick gives the same state as playing up to it.
+ * A file with a count or length out of range is rejected with an IOException.
+ */
+class ReplayTest {
+    private static final long TICK_NANOS = 20_000_000L;
+    private static final long SEED = 42;
+    private static final int MAX_TICKS = 5_000;
+
+    private static final int HEADER = 21; // Magic, version, seed and tick length
+
+    private static Replay replay;
+    private static byte[] recorded;
+    private static byte[] header;
+
+    @TempDir
+    Path dir;
+
+    // One game of seeded random input, written to disk and read back
+    @BeforeAll
+    static void record(@TempDir Path dir) throws Exception {
+        GameWorld world = new GameWorld(SEED, TICK_NANOS);
+        GameRandom inputs = new GameRandom(SEED);
+        Replay recording = Replay.startRecording(world, Replay.DEFAULT_KEYFRAME_INTERVAL);
+        int input = 0;
+        for (int i = 0; i < MAX_TICKS && !world.isGameOver(); i++) {
+            if (inputs.nextInt(10) == 0) input = inputs.nextInt(8); // Held for a few ticks like a player
+            recording.record(world, input);
+            world.tick(input);
+        }
+        recorded = world.snapshot();
+
+        Path file = dir.resolve("game.replay");
+        recording.write(file);
+        replay = Replay.read(file);
+        header = Arrays.copyOf(Files.readAllBytes(file), HEADER);
+    }
+
+    @Test
+    void playbackEndsInRecordedState() {
+        for (int run = 0; run < 2; run++) {
+            ReplayPlayer player = new ReplayPlayer(replay);
+            while (player.step()) {
+                // Plays every tick
+            }
+            assertArrayEquals(recorded, player.getWorld().snapshot(), "playback " + (run + 1));
+        }
+    }
+
+    // Uneven steps, so targets land both on and between keyframes
+    @Test
+    void seekMatchesPlayingUpToTick() {
+        int ticks = replay.getTickCount();
+        ReplayPlayer straight = new ReplayPlayer(replay);
+        ReplayPlayer seeker = new ReplayPlayer(replay);
+        for (int tick = 0; tick <= ticks; tick += ticks / 40 + 7) {
+            while (straight.getPosition() < tick) straight.step();
+            seeker.seek(tick);
+            assertArrayEquals(straight.getWorld().snapshot(), seeker.getWorld().snapshot(), "seek to tick " + tick);
+        }
+        seeker.seek(ticks);
+        assertArrayEquals(recorded, seeker.getWorld().snapshot(), "seek to the end");
+    }
+
+    @Test
+    void zeroKeyframeIntervalIsRejected() throws IOException {
+        assertRejected(0, 1, 1, 0, 1, 1, 1);
+    }
+
+    @Test
+    void hugeTickCountIsRejected() throws IOException {
+        assertRejected(500, Integer.MAX_VALUE, 1, 0, Integer.MAX_VALUE, 1, 1);
+    }
+
+    @Test
+    void negativeKeyframeLengthIsRejected() throws IOException {
+        assertRejected(500, 1, 1, 0, 1, 1, -1);
+    }
+
+    @Test
+    void keyframeLongerThanFileIsRejected() throws IOException {
+        assertRejected(500, 1, 1, 0, 1, 1, 1 << 30);
+    }
+
+    @Test
+    void inputRunPastTickCountIsRejected() throws IOException {
+        assertRejected(500, 1, 1, 0, 2, 1, 1);
+    }
+
+    // A real header followed by the given varints: keyframe interval, tick count, run count,
+    // one run's input and length, keyframe count and the first keyframe's length
+    private void assertRejected(int interval, int ticks, int runs, int input, int length, int keyframes,
+                                int keyframeLength) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(header);
+        Replay.writeVarint(bytes, interval);
+        Replay.writeVarint(bytes, ticks);
+        Replay.writeVarint(bytes, runs);
+        bytes.write(input);
+        Replay.writeVarint(bytes, length);
+        Replay.writeVarint(bytes, keyframes);
+        Replay.writeVarint(bytes, keyframeLength);
+        bytes.write(new byte[16]);
+        Path file = dir.resolve("bad.replay");
+        Files.write(file, bytes.toByteArray());
+        assertThrows(IOException.class, () -> Replay.read(file));
+    }
+}
@@ -0,0 +1,117 @@
+package galaga;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Saving and resuming a game is exact: at several points of a seeded game the resumed
+ * world's state is byte-identical to the saved one, stays identical when both play on
+ * with the same input, and saves back to an identical file. A corrupted file is rejected,
+ * and so is a well-formed one holding an enemy the game could not play, without touching
+ * the world it was being restored into.
+ */
+class SaveGameTest {
+    private static final long TICK_NANOS = 20_000_000L;
+    private static final long SEED = 42;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void resumedGameMatchesSavedOne() throws IOException {
+        Path file = dir.resolve("galaga.sav");
+        Path copy = dir.resolve("copy.sav");
+        GameWorld world = new GameWorld(SEED, TICK_NANOS);
+        GameRandom inputs = new GameRandom(SEED);
+        int input = 0;
+        for (int target : new int[]{0, 1, 100, 250, 400}) {
+            while (world.getTicks() < target && !world.isGameOver()) {
+                if (inputs.nextInt(10) == 0) input = inputs.nextInt(8);
+                world.tick(input);
+            }
+            SaveGame.of(world, "ABC").write(file);
+            SaveGame save = SaveGame.read(file);
+            GameWorld resumed = save.restore();
+            assertEquals("ABC", save.getPlayerName());
+            assertArrayEquals(world.snapshot(), resumed.snapshot(), "resumed state at tick " + target);
+
+            SaveGame.of(resumed, save.getPlayerName()).write(copy);
+            assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(copy), "save of the game resumed at tick " + target);
+
+            // Both play on with the same input
+            GameWorld original = save.restore();
+            GameRandom more = new GameRandom(target);
+            for (int i = 0; i < 500; i++) {
+                int bits = more.nextInt(8);
+                original.tick(bits);
+                resumed.tick(bits);
+            }
+            assertArrayEquals(original.snapshot(), resumed.snapshot(), "games resumed at tick " + target);
+        }
+    }
+
+    @Test
+    void corruptedSaveIsRejected() throws IOException {
+        Path file = dir.resolve("galaga.sav");
+        GameWorld world = new GameWorld(SEED, TICK_NANOS);
+        for (int i = 0; i < 100; i++) world.tick(i % 3 == 0 ? GameWorld.INPUT_FIRE : 0);
+        SaveGame.of(world, "ABC").write(file);
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> SaveGame.read(file));
+    }
+
+    // States that pass the checksum because they were written that way, but cannot be played
+    @Test
+    void unplayableStateIsRejected() throws IOException {
+        assertUnplayable(enemies -> enemies.stage[0] = EnemyStore.RETURNING + 1);
+        assertUnplayable(enemies -> {
+            enemies.stage[0] = EnemyStore.DIVING;
+            enemies.path[0] = AttackPath.SWOOP;
+            enemies.pathStep[0] = 1;
+            enemies.pathIndex[0] = AttackPath.SWOOP.length();
+        });
+        assertUnplayable(enemies -> {
+            enemies.path[0] = null;
+            enemies.pathStep[0] = 1;
+        });
+    }
+
+    @Test
+    void failedRestoreLeavesWorldUnchanged() {
+        GameWorld world = new GameWorld(SEED, TICK_NANOS);
+        for (int i = 0; i < 100; i++) world.tick(i % 3 == 0 ? GameWorld.INPUT_FIRE : 0);
+        byte[] before = world.snapshot();
+
+        // Fails on the last enemy, after the counters and every other enemy have been read
+        GameWorld other = new GameWorld(SEED + 1, TICK_NANOS);
+        for (int i = 0; i < 300; i++) other.tick(GameWorld.INPUT_FIRE);
+        EnemyStore enemies = other.getEnemies();
+        enemies.stage[enemies.size() - 1] = EnemyStore.RETURNING + 1;
+        byte[] broken = other.snapshot();
+
+        assertThrows(IllegalArgumentException.class, () -> world.restore(broken));
+        assertArrayEquals(before, world.snapshot());
+    }
+
+    private void assertUnplayable(Consumer<EnemyStore> corruption) throws IOException {
+        Path file = dir.resolve("galaga.sav");
+        GameWorld world = new GameWorld(SEED, TICK_NANOS);
+        for (int i = 0; i < 100; i++) world.tick(0);
+        corruption.accept(world.getEnemies());
+        SaveGame.of(world, "ABC").write(file);
+        SaveGame save = SaveGame.read(file);
+        assertThrows(IllegalArgumentException.class, save::restore);
+    }
+}
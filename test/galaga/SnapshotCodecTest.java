@@ -0,0 +1,76 @@
+package galaga;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A snapshot survives encoding and decoding, and a packet naming an enemy the game could
+ * not hold is rejected with an IllegalArgumentException, which drops it like a lost
+ * datagram, instead of failing later in the tick or while painting.
+ */
+class SnapshotCodecTest {
+    private final SnapshotCodec codec = new SnapshotCodec();
+    private final WorldSnapshot empty = new WorldSnapshot(false);
+    private final WorldSnapshot sent = new WorldSnapshot(false);
+    private final WorldSnapshot decoded = new WorldSnapshot(false);
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+    @BeforeEach
+    void play() {
+        GameWorld world = new GameWorld(42, 20_000_000L);
+        for (int i = 0; i < 200; i++) world.tick(i % 8 == 0 ? GameWorld.INPUT_FIRE : 0);
+        sent.copyFrom(world);
+    }
+
+    @Test
+    void roundTrip() {
+        send();
+        codec.decode(empty, buffer, decoded);
+        EnemyStore expected = sent.enemies, actual = decoded.enemies;
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.type[i], actual.type[i]);
+            assertEquals(expected.variant[i], actual.variant[i]);
+            assertEquals(expected.health[i], actual.health[i]);
+            assertEquals(expected.stage[i], actual.stage[i]);
+        }
+        assertEquals(sent.hero.x, decoded.hero.x);
+        assertEquals(sent.hero.y, decoded.hero.y);
+        assertEquals(sent.score, decoded.score);
+    }
+
+    @Test
+    void unknownVariantIsRejected() {
+        assertRejected(enemies -> enemies.variant[0] = 15);
+    }
+
+    @Test
+    void badHealthIsRejected() {
+        assertRejected(enemies -> enemies.health[0] = enemies.type[0].health + 1);
+        assertRejected(enemies -> enemies.health[0] = -1);
+    }
+
+    @Test
+    void unknownStageIsRejected() {
+        assertRejected(enemies -> enemies.stage[0] = EnemyStore.RETURNING + 1);
+    }
+
+    // Corrupts the first enemy before encoding, since the encoder sends whatever it is given
+    private void assertRejected(Consumer<EnemyStore> corruption) {
+        corruption.accept(sent.enemies);
+        send();
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(empty, buffer, decoded));
+    }
+
+    private void send() {
+        buffer.clear();
+        codec.encode(empty, sent, buffer);
+        buffer.flip();
+    }
+}
@@ -0,0 +1,51 @@
+package galaga;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The SpatialGrid broadphase finds the same first enemy for every laser as the all-pairs
+ * scan it replaced, from 10 to 10,000 entities scattered over the board.
+ */
+class SpatialGridTest {
+    @Test
+    void broadphaseMatchesAllPairs() {
+        for (int count : new int[]{10, 100, 1_000, 10_000}) {
+            Random rand = new Random(count);
+            EnemyStore enemies = new EnemyStore(count);
+            ProjectileStore lasers = Laser.createStore();
+            int enemyCount = count * 3 / 4;
+            for (int i = 0; i < enemyCount; i++) {
+                enemies.add(EnemyFactory.SWOOPING, rand.nextInt(GameWorld.BOARD_WIDTH - EnemyStore.SIZE),
+                        rand.nextInt(GameWorld.BOARD_HEIGHT - EnemyStore.SIZE), 0, 0);
+            }
+            for (int i = enemyCount; i < count; i++) {
+                lasers.add(rand.nextInt(GameWorld.BOARD_WIDTH), rand.nextInt(GameWorld.BOARD_HEIGHT), Laser.SPEED);
+            }
+
+            SpatialGrid grid = new SpatialGrid(GameWorld.BOARD_WIDTH, GameWorld.BOARD_HEIGHT, 64);
+            for (int j = 0; j < enemies.size(); j++) {
+                grid.insert(j, enemies.x[j], enemies.y[j], EnemyStore.SIZE, EnemyStore.SIZE);
+            }
+            for (int i = 0; i < lasers.size(); i++) {
+                assertEquals(firstHit(enemies, lasers.x[i], lasers.y[i]),
+                        grid.firstOverlap(lasers.x[i], lasers.y[i], Laser.WIDTH, Laser.HEIGHT),
+                        "laser " + i + " of " + count + " entities");
+            }
+        }
+    }
+
+    // Index of the first enemy a laser overlaps, -1 for a miss
+    private static int firstHit(EnemyStore enemies, int x, int y) {
+        for (int j = 0; j < enemies.size(); j++) {
+            if (Collision.overlaps(enemies.x[j], enemies.y[j], EnemyStore.SIZE, EnemyStore.SIZE,
+                    x, y, Laser.WIDTH, Laser.HEIGHT)) {
+                return j;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,67 @@
+package galaga;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A warmed-up GameWorld.tick allocates nothing. Once the JIT has compiled whole games,
+ * N more ticks must not allocate a single byte on the ticking thread, whether the balance
+ * bot plays through waves, deaths and game over, or a player holding fire and left sits
+ * under capture dive after capture dive.
+ */
+class TickAllocationTest {
+    private static final long TICK_NANOS = 20_000_000L;
+    private static final int HELD = GameWorld.INPUT_FIRE | GameWorld.INPUT_LEFT;
+    private static final int WARMUP_GAMES = 30;
+    private static final int MAX_TICKS = 30_000;
+    private static final int TICKS = 5_000;
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @BeforeAll
+    static void warmUp() {
+        assertTrue(threads.isThreadAllocatedMemorySupported(), "this JVM cannot count allocations");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        for (int game = 0; game < WARMUP_GAMES; game++) {
+            GameWorld bot = new GameWorld(100 + game, TICK_NANOS);
+            while (!bot.isGameOver() && bot.getTicks() < MAX_TICKS) bot.tick(BalanceRunner.botInput(bot));
+        }
+        for (int game = 0; game < 3; game++) {
+            GameWorld held = new GameWorld(42, TICK_NANOS);
+            while (!held.isGameOver() && held.getTicks() < MAX_TICKS) held.tick(HELD);
+        }
+    }
+
+    @Test
+    void botGameAllocatesNothing() {
+        GameWorld world = new GameWorld(1, TICK_NANOS);
+        long allocated = allocatedBytes(() -> {
+            for (int i = 0; i < TICKS && !world.isGameOver(); i++) world.tick(BalanceRunner.botInput(world));
+        });
+        assertEquals(0, allocated, "bytes allocated over " + world.getTicks() + " ticks");
+    }
+
+    @Test
+    void captureDivesAllocateNothing() {
+        GameWorld world = new GameWorld(42, TICK_NANOS);
+        long allocated = allocatedBytes(() -> {
+            for (int i = 0; i < TICKS && !world.isGameOver(); i++) world.tick(HELD);
+        });
+        assertEquals(0, allocated, "bytes allocated over " + world.getTicks() + " ticks");
+    }
+
+    // Bytes the current thread allocates while running the ticks
+    private static long allocatedBytes(Runnable ticks) {
+        long thread = Thread.currentThread().getId();
+        threads.getThreadAllocatedBytes(thread); // The first call may allocate itself
+        long before = threads.getThreadAllocatedBytes(thread);
+        ticks.run();
+        return threads.getThreadAllocatedBytes(thread) - before;
+    }
+}